@@ -1,5 +1,6 @@
 package com.system.hotel_room_booking.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -14,11 +15,15 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 public class CacheConfig {
     
+    /**
+     * Room ratings are evicted only on the instance that committed the change, so entries expire a fixed time
+     * after they were loaded (reads do not extend them) to bound how stale other instances can be
+     */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("rateLimitBuckets");
+    public CacheManager cacheManager(@Value("${room-ratings.cache.ttl-seconds:30}") long ttlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager("roomRatings");
         cacheManager.setCaffeine(Caffeine.newBuilder()
-            .expireAfterAccess(1, TimeUnit.HOURS)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
             .maximumSize(100_000));
         return cacheManager;
     }
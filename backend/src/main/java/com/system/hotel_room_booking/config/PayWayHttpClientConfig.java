@@ -0,0 +1,75 @@
+package com.system.hotel_room_booking.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pooled keep-alive HTTP client dedicated to outbound PayWay calls
+ * Kept separate from the general RestTemplate so PayWay latency cannot exhaust shared connections
+ */
+@Configuration
+public class PayWayHttpClientConfig {
+
+    @Value("${payway.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${payway.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${payway.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${payway.http.pool-timeout-ms:500}")
+    private long poolTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager payWayConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+
+        Gauge.builder("payway.http.client.connections", connectionManager, cm -> cm.getTotalStats().getLeased())
+            .tag("state", "leased")
+            .register(meterRegistry);
+        Gauge.builder("payway.http.client.connections", connectionManager, cm -> cm.getTotalStats().getAvailable())
+            .tag("state", "idle")
+            .register(meterRegistry);
+        Gauge.builder("payway.http.client.connections", connectionManager, cm -> cm.getTotalStats().getPending())
+            .tag("state", "pending")
+            .register(meterRegistry);
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient payWayHttpClient(PoolingHttpClientConnectionManager payWayConnectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(payWayConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .evictExpiredConnections()
+            .disableAutomaticRetries()
+            .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.system.hotel_room_booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs (e.g. payment reconciliation)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
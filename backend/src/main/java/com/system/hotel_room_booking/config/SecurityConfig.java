@@ -1,6 +1,8 @@
 package com.system.hotel_room_booking.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +20,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.system.hotel_room_booking.security.ApiKeyAuthenticationFilter;
+import com.system.hotel_room_booking.security.BoundedPasswordEncoder;
 import com.system.hotel_room_booking.security.CustomUserDetailsService;
 import com.system.hotel_room_booking.security.JwtAuthenticationEntryPoint;
 import com.system.hotel_room_booking.security.JwtAuthenticationFilter;
@@ -38,21 +42,33 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ApiKeyAuthenticationFilter apiKeyAuthenticationFilter;
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
     private final OAuth2AuthenticationFailureHandler oAuth2AuthenticationFailureHandler;
     private final HttpCookieOAuth2AuthorizationRequestRepository httpCookieOAuth2AuthorizationRequestRepository;
     
+    /**
+     * BCrypt on a dedicated pool sized to the cores; raising the strength rehashes passwords on their next login
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password-hashing.bcrypt-strength:12}") int strength,
+                                           @Value("${security.password-hashing.workers:0}") int workers,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMs,
+                meterRegistry);
     }
     
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Stores the rehash when upgradeEncoding reports a weaker cost than configured
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
     
@@ -62,7 +78,7 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
@@ -84,6 +100,7 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                 .requestMatchers("/uploads/**").permitAll() // Allow public access to uploaded files
                 .requestMatchers("/api/payments/**").permitAll()
+                .requestMatchers("/stub/payway/**").permitAll() // Only mapped when payway.stub.enabled=true
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
@@ -120,9 +137,10 @@ public class SecurityConfig {
             )
         );
         
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(apiKeyAuthenticationFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
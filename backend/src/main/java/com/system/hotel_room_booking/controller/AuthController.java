@@ -32,7 +32,7 @@ public class AuthController {
     private final AuthService authService;
     
     @PostMapping("/signup")
-    @RateLimited(limit = 5, duration = 3600, type = RateLimitType.IP) // 5 signups per hour per IP
+    @RateLimited(limit = 5, duration = 3600, type = RateLimitType.IP, policy = "signup") // 5 signups per hour per IP
     @Operation(summary = "Register new user", description = "Creates a new user account and sends email verification")
     public ResponseEntity<Map<String, String>> signup(@Valid @RequestBody SignupRequest request) {
         Map<String, String> response = authService.signup(request);
@@ -47,7 +47,7 @@ public class AuthController {
     }
     
     @PostMapping("/resend-verification")
-    @RateLimited(limit = 3, duration = 600, type = RateLimitType.IP) // 3 resends per 10 minutes per IP
+    @RateLimited(limit = 3, duration = 600, type = RateLimitType.IP, policy = "resend-verification") // 3 resends per 10 minutes per IP
     @Operation(summary = "Resend verification email", description = "Resends verification email to user")
     public ResponseEntity<Map<String, String>> resendVerification(@RequestParam String email) {
         Map<String, String> response = authService.resendVerificationEmail(email);
@@ -55,7 +55,7 @@ public class AuthController {
     }
     
     @PostMapping("/login")
-    @RateLimited(limit = 10, duration = 10, type = RateLimitType.IP) // 10 login attempts per 5 minutes per IP
+    @RateLimited(limit = 10, duration = 10, type = RateLimitType.IP, policy = "login") // 10 login attempts per 5 minutes per IP
     @Operation(summary = "User login", description = "Authenticates user and sets JWT tokens in HttpOnly cookies")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, 
                                               HttpServletRequest httpRequest,
@@ -82,21 +82,25 @@ public class AuthController {
     }
     
     @PostMapping("/refresh")
-    @Operation(summary = "Refresh access token", description = "Generates new access token using refresh token from cookie")
+    @Operation(summary = "Refresh access token", description = "Generates new access token and rotates the refresh token from cookie")
     public ResponseEntity<AuthResponse> refreshToken(HttpServletRequest httpRequest,
                                                      HttpServletResponse httpResponse) {
         // Get refresh token from cookie
         String refreshToken = CookieUtil.getCookie(httpRequest, CookieUtil.REFRESH_TOKEN_COOKIE)
             .orElseThrow(() -> new RuntimeException("Refresh token not found"));
         
-        AuthResponse response = authService.refreshToken(refreshToken);
+        AuthResponse response = authService.refreshToken(refreshToken, httpRequest);
         
-        // Set new access token in cookie
+        // Set new access token and the rotated refresh token in cookies
         boolean isProduction = CookieUtil.isProduction();
         ResponseCookie accessTokenCookie = CookieUtil.createAccessTokenCookie(
             response.getAccessToken(), isProduction
         );
+        ResponseCookie refreshTokenCookie = CookieUtil.createRefreshTokenCookie(
+            response.getRefreshToken(), isProduction
+        );
         CookieUtil.addCookie(httpResponse, accessTokenCookie);
+        CookieUtil.addCookie(httpResponse, refreshTokenCookie);
         
         // Return response without tokens
         response.setAccessToken(null);
@@ -126,8 +130,21 @@ public class AuthController {
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
     
+    @PostMapping("/logout-all")
+    @Operation(summary = "Logout from all devices", description = "Revokes every refresh and access token of the current user and clears cookies")
+    public ResponseEntity<Map<String, String>> logoutAll(HttpServletResponse httpResponse) {
+        authService.logoutAll();
+        
+        CookieUtil.deleteCookies(httpResponse, 
+            CookieUtil.ACCESS_TOKEN_COOKIE, 
+            CookieUtil.REFRESH_TOKEN_COOKIE
+        );
+        
+        return ResponseEntity.ok(Map.of("message", "Logged out from all devices"));
+    }
+    
     @PostMapping("/forgot-password")
-    @RateLimited(limit = 3, duration = 600, type = RateLimitType.IP) // 3 requests per 10 minutes per IP
+    @RateLimited(limit = 3, duration = 600, type = RateLimitType.IP, policy = "forgot-password") // 3 requests per 10 minutes per IP
     @Operation(summary = "Forgot password", description = "Sends password reset email to user")
     public ResponseEntity<Map<String, String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
         Map<String, String> response = authService.forgotPassword(request.getEmail());
@@ -135,7 +152,7 @@ public class AuthController {
     }
     
     @PostMapping("/reset-password")
-    @RateLimited(limit = 5, duration = 600, type = RateLimitType.IP) // 5 attempts per 10 minutes per IP
+    @RateLimited(limit = 5, duration = 600, type = RateLimitType.IP, policy = "reset-password") // 5 attempts per 10 minutes per IP
     @Operation(summary = "Reset password", description = "Resets user password with valid token")
     public ResponseEntity<Map<String, String>> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
         Map<String, String> response = authService.resetPassword(request.getToken(), request.getNewPassword());
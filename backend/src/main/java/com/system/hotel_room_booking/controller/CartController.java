@@ -43,6 +43,12 @@ public class CartController {
         return ResponseEntity.ok(cartService.removeItem(itemId));
     }
 
+    @PostMapping("/discount/best")
+    @Operation(summary = "Apply best discount", description = "Apply the discount that saves the most on the cart, if any")
+    public ResponseEntity<CartResponse> applyBestDiscount() {
+        return ResponseEntity.ok(cartService.applyBestDiscount());
+    }
+
     @PostMapping("/discount/{code}")
     @Operation(summary = "Apply discount code", description = "Apply a discount code to the cart")
     public ResponseEntity<CartResponse> applyDiscount(@PathVariable String code) {
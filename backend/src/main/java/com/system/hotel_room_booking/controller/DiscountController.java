@@ -1,7 +1,10 @@
 package com.system.hotel_room_booking.controller;
 
 import com.system.hotel_room_booking.model.dto.request.CreateDiscountRequest;
+import com.system.hotel_room_booking.model.dto.request.GenerateCampaignCodesRequest;
+import com.system.hotel_room_booking.model.dto.response.CampaignCodesResponse;
 import com.system.hotel_room_booking.model.dto.response.DiscountResponse;
+import com.system.hotel_room_booking.service.CampaignCodeService;
 import com.system.hotel_room_booking.service.DiscountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,12 +20,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -33,6 +42,7 @@ import java.util.List;
 public class DiscountController {
 
     private final DiscountService discountService;
+    private final CampaignCodeService campaignCodeService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -79,6 +89,54 @@ public class DiscountController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/{id}/codes")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+        summary = "Generate campaign codes",
+        description = "Generate single-use codes copying the settings of the given discount. Admin access required."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Codes generated successfully",
+            content = @Content(schema = @Schema(implementation = CampaignCodesResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid generation request"),
+        @ApiResponse(responseCode = "404", description = "Discount not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<CampaignCodesResponse> generateCampaignCodes(
+            @Parameter(description = "Template discount ID", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody GenerateCampaignCodesRequest request) {
+        log.info("REST request to generate {} campaign codes from discount: {}", request.getCount(), id);
+        CampaignCodesResponse response = campaignCodeService.generateCodes(id, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping(value = "/{id}/codes", produces = MediaType.TEXT_PLAIN_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+        summary = "Export campaign codes",
+        description = "Stream the codes generated from the given discount, one per line. Admin access required."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Codes streamed"),
+        @ApiResponse(responseCode = "404", description = "Discount not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<StreamingResponseBody> exportCampaignCodes(
+            @Parameter(description = "Template discount ID", required = true)
+            @PathVariable Long id) {
+        log.info("REST request to export campaign codes of discount: {}", id);
+        StreamingResponseBody body = out -> campaignCodeService.writeCodes(id,
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"campaign-" + id + "-codes.txt\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
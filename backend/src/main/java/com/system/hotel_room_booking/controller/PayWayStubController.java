@@ -0,0 +1,61 @@
+package com.system.hotel_room_booking.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for the PayWay check-transaction API
+ * Only registered when payway.stub.enabled=true; point payway.base-url at {host}/stub/payway
+ * to run reconciliation (and load tests against it) without the real gateway
+ */
+@Hidden
+@RestController
+@RequestMapping("/stub/payway")
+@ConditionalOnProperty(name = "payway.stub.enabled", havingValue = "true")
+@Slf4j
+public class PayWayStubController {
+
+    private final Map<String, String> transactionStatuses = new ConcurrentHashMap<>();
+
+    @Value("${payway.stub.default-status:APPROVED}")
+    private String defaultStatus;
+
+    @Value("${payway.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @PostMapping("${payway.check-path:/api/payment-gateway/v1/payments/check-transaction-2}")
+    public ResponseEntity<Map<String, Object>> checkTransaction(@RequestBody Map<String, String> request)
+            throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+
+        String tranId = request.get("tran_id");
+        String paymentStatus = transactionStatuses.getOrDefault(tranId, defaultStatus);
+
+        return ResponseEntity.ok(Map.of(
+            "data", Map.of(
+                "tran_id", tranId != null ? tranId : "",
+                "payment_status", paymentStatus,
+                "payment_type", "ABA PAY"
+            ),
+            "status", Map.of("code", "00", "message", "Success!")
+        ));
+    }
+
+    @PutMapping("/transactions/{tranId}")
+    public ResponseEntity<Map<String, String>> setTransactionStatus(
+            @PathVariable String tranId,
+            @RequestParam String status) {
+        log.info("PayWay stub: {} -> {}", tranId, status);
+        transactionStatuses.put(tranId, status.toUpperCase());
+        return ResponseEntity.ok(Map.of("tranId", tranId, "status", status.toUpperCase()));
+    }
+}
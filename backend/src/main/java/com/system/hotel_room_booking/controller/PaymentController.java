@@ -1,13 +1,16 @@
 package com.system.hotel_room_booking.controller;
 
 import com.system.hotel_room_booking.model.dto.payment.AbaPayWayCallbackRequest;
+import com.system.hotel_room_booking.model.dto.response.PaymentStatusResponse;
 import com.system.hotel_room_booking.service.PaymentService;
+import com.system.hotel_room_booking.service.PaymentStatusNotifier;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.Map;
 
@@ -22,6 +25,7 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentStatusNotifier paymentStatusNotifier;
 
     @GetMapping("/return")
     @Operation(summary = "PayWay return callback", 
@@ -88,17 +92,19 @@ public class PaymentController {
     @GetMapping("/status/{transactionId}")
     @Operation(summary = "Get payment status", 
                description = "Check the status of a payment by transaction ID")
-    public ResponseEntity<Map<String, Object>> getPaymentStatus(@PathVariable String transactionId) {
-        var payment = paymentService.getPaymentByTransactionId(transactionId);
-        
-        return ResponseEntity.ok(Map.of(
-            "transactionId", payment.getTransactionId(),
-            "status", payment.getStatus().toString(),
-            "amount", payment.getAmount(),
-            "currency", payment.getCurrency(),
-            "paymentMethod", payment.getPaymentMethod() != null ? payment.getPaymentMethod() : "N/A",
-            "initiatedAt", payment.getInitiatedAt().toString(),
-            "completedAt", payment.getCompletedAt() != null ? payment.getCompletedAt().toString() : null
-        ));
+    public ResponseEntity<PaymentStatusResponse> getPaymentStatus(@PathVariable String transactionId) {
+        return ResponseEntity.ok(paymentService.getPaymentStatus(transactionId));
+    }
+
+    @GetMapping("/status/{transactionId}/await")
+    @Operation(summary = "Wait for payment status change",
+               description = "Long-poll: responds as soon as the payment status differs from knownStatus, " +
+                             "or with the current status when the wait times out; " +
+                             "503 with Retry-After when too many clients are already waiting")
+    public DeferredResult<PaymentStatusResponse> awaitPaymentStatus(
+            @PathVariable String transactionId,
+            @RequestParam(value = "knownStatus", required = false, defaultValue = "PENDING") String knownStatus
+    ) {
+        return paymentStatusNotifier.awaitStatusChange(transactionId, knownStatus);
     }
 }
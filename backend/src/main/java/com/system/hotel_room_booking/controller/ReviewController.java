@@ -1,7 +1,10 @@
 package com.system.hotel_room_booking.controller;
 
 import com.system.hotel_room_booking.model.dto.request.CreateReviewRequest;
+import com.system.hotel_room_booking.model.dto.request.ReviewFeedSort;
+import com.system.hotel_room_booking.model.dto.response.ReviewFeedResponse;
 import com.system.hotel_room_booking.model.dto.response.ReviewResponse;
+import com.system.hotel_room_booking.model.dto.response.RoomRatingSummaryResponse;
 import com.system.hotel_room_booking.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,7 +23,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reviews")
@@ -89,6 +91,53 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/room/{roomId}/feed")
+    @Operation(
+        summary = "Get review feed for a room",
+        description = "Retrieve a page of published reviews for a room, sorted by recency, rating or management response. " +
+                      "Pass the returned nextCursor to get the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved reviews",
+            content = @Content(schema = @Schema(implementation = ReviewFeedResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<ReviewFeedResponse> getRoomReviewFeed(
+            @Parameter(description = "Room ID", required = true)
+            @PathVariable Long roomId,
+            @Parameter(description = "Sort order")
+            @RequestParam(defaultValue = "RECENT") ReviewFeedSort sort,
+            @Parameter(description = "Cursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("REST request to get review feed for room: {} sorted by {}", roomId, sort);
+        ReviewFeedResponse response = reviewService.getRoomReviewFeed(roomId, sort, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search reviews",
+        description = "Find published reviews whose comment contains all the given keywords, in one room or across the hotel"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched reviews"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<List<ReviewResponse>> searchReviews(
+            @Parameter(description = "Keywords, e.g. quiet breakfast", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Restrict to one room")
+            @RequestParam(required = false) Long roomId,
+            @Parameter(description = "Maximum number of results (max 100)")
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("REST request to search reviews for '{}' in room: {}", q, roomId);
+        List<ReviewResponse> response = reviewService.searchReviews(q, roomId, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/my-reviews")
     @PreAuthorize("isAuthenticated()")
     @SecurityRequirement(name = "cookieAuth")
@@ -109,17 +158,18 @@ public class ReviewController {
     @GetMapping("/room/{roomId}/ratings")
     @Operation(
         summary = "Get room ratings summary",
-        description = "Get average rating and review count for a room"
+        description = "Get review count, average ratings per dimension and the rating distribution for a room"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved ratings"),
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved ratings",
+            content = @Content(schema = @Schema(implementation = RoomRatingSummaryResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<Map<String, Object>> getRoomRatings(
+    public ResponseEntity<RoomRatingSummaryResponse> getRoomRatings(
             @Parameter(description = "Room ID", required = true)
             @PathVariable Long roomId) {
         log.info("REST request to get ratings for room: {}", roomId);
-        Map<String, Object> ratings = reviewService.getRoomRatings(roomId);
+        RoomRatingSummaryResponse ratings = reviewService.getRoomRatings(roomId);
         return ResponseEntity.ok(ratings);
     }
 
@@ -112,9 +112,11 @@ public class RoomController {
             content = @Content(schema = @Schema(implementation = Page.class)))
     })
     public ResponseEntity<Page<RoomResponse>> getAllRooms(
-            @PageableDefault(size = 20, sort = "roomNumber") Pageable pageable) {
+            @PageableDefault(size = 20, sort = "roomNumber") Pageable pageable,
+            @Parameter(description = "Attach each room's rating summary")
+            @RequestParam(defaultValue = "false") boolean includeRatings) {
         log.info("REST request to get all rooms");
-        Page<RoomResponse> response = roomService.getAllRooms(pageable);
+        Page<RoomResponse> response = roomService.getAllRooms(pageable, includeRatings);
         return ResponseEntity.ok(response);
     }
 
@@ -138,9 +140,12 @@ public class RoomController {
             @RequestParam(required = false) RoomType type,
             
             @Parameter(description = "Minimum capacity required")
-            @RequestParam(required = false) Integer minCapacity) {
+            @RequestParam(required = false) Integer minCapacity,
+            
+            @Parameter(description = "Attach each room's rating summary")
+            @RequestParam(defaultValue = "false") boolean includeRatings) {
         log.info("REST request to search available rooms from {} to {}", checkIn, checkOut);
-        List<RoomResponse> response = roomService.searchAvailableRooms(checkIn, checkOut, type, minCapacity);
+        List<RoomResponse> response = roomService.searchAvailableRooms(checkIn, checkOut, type, minCapacity, includeRatings);
         return ResponseEntity.ok(response);
     }
 
@@ -157,9 +162,12 @@ public class RoomController {
             @RequestParam BigDecimal minPrice,
             
             @Parameter(description = "Maximum price", required = true)
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            
+            @Parameter(description = "Attach each room's rating summary")
+            @RequestParam(defaultValue = "false") boolean includeRatings) {
         log.info("REST request to get rooms by price range: {} - {}", minPrice, maxPrice);
-        List<RoomResponse> response = roomService.getRoomsByPriceRange(minPrice, maxPrice);
+        List<RoomResponse> response = roomService.getRoomsByPriceRange(minPrice, maxPrice, includeRatings);
         return ResponseEntity.ok(response);
     }
 
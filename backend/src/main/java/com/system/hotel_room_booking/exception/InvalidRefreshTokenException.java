@@ -0,0 +1,8 @@
+package com.system.hotel_room_booking.exception;
+
+public class InvalidRefreshTokenException extends BusinessException {
+    
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.system.hotel_room_booking.exception;
+
+/**
+ * Thrown when an outbound PayWay call is rejected locally (circuit open or bulkhead full)
+ */
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+}
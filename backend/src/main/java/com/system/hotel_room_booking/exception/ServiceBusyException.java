@@ -0,0 +1,11 @@
+package com.system.hotel_room_booking.exception;
+
+/**
+ * Thrown when a bounded worker pool rejects work instead of queueing it, so the caller can retry later
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.system.hotel_room_booking.model.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for PayWay check-transaction result
+ * Status uses the same codes as the callback so both go through one status path
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayWayCheckResult {
+
+    private String tranId;            // Transaction ID
+    private Integer status;           // Payment status (0: success, 1: pending, 2: failed, 3: cancelled)
+    private String paymentOption;     // Payment method used
+    private String message;           // Status message
+    private String rawResponse;       // Full response body for reference
+}
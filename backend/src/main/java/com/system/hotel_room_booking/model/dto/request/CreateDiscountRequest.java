@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -60,6 +61,22 @@ public class CreateDiscountRequest {
     @Digits(integer = 10, fraction = 2, message = "Invalid amount format")
     private BigDecimal maxDiscountAmount;
 
+    @Min(value = 0, message = "Min lead days must not be negative")
+    private Integer minLeadDays;
+
+    @Min(value = 0, message = "Max lead days must not be negative")
+    private Integer maxLeadDays;
+
+    private LocalDate stayFrom;
+
+    private LocalDate stayUntil;
+
+    @Min(value = 1, message = "Min nights must be at least 1")
+    private Integer minNights;
+
+    @Min(value = 0, message = "Min user bookings must not be negative")
+    private Integer minUserBookings;
+
     @Size(max = 1000, message = "Terms and conditions must not exceed 1000 characters")
     private String termsAndConditions;
 
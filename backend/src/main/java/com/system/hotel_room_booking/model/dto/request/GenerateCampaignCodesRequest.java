@@ -0,0 +1,28 @@
+package com.system.hotel_room_booking.model.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateCampaignCodesRequest {
+
+    @NotNull(message = "Count is required")
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = 1000000, message = "Count must not exceed 1000000")
+    private Integer count;
+
+    @Size(max = 20, message = "Prefix must not exceed 20 characters")
+    @Pattern(regexp = "^[A-Z0-9_-]*$", message = "Prefix must contain only uppercase letters, numbers, hyphens, and underscores")
+    private String prefix;
+
+    @Min(value = 8, message = "Code length must be at least 8")
+    @Max(value = 20, message = "Code length must not exceed 20")
+    @Builder.Default
+    private Integer codeLength = 12;
+}
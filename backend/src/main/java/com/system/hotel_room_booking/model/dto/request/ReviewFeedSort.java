@@ -0,0 +1,10 @@
+package com.system.hotel_room_booking.model.dto.request;
+
+/**
+ * Orderings of the room review feed
+ */
+public enum ReviewFeedSort {
+    RECENT,         // newest first
+    RATING,         // highest overall rating first, newest first within a rating
+    WITH_RESPONSE   // only reviews with a management response, most recently answered first
+}
@@ -0,0 +1,18 @@
+package com.system.hotel_room_booking.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignCodesResponse {
+
+    private String campaign;
+    private Integer requested;
+    private Integer generated;
+    private Long durationMs;
+}
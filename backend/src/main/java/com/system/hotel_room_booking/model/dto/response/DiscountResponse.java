@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -29,8 +30,15 @@ public class DiscountResponse {
     private Integer maxUsagePerUser;
     private BigDecimal minOrderAmount;
     private BigDecimal maxDiscountAmount;
+    private Integer minLeadDays;
+    private Integer maxLeadDays;
+    private LocalDate stayFrom;
+    private LocalDate stayUntil;
+    private Integer minNights;
+    private Integer minUserBookings;
     private Boolean isActive;
     private String termsAndConditions;
+    private String campaign;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,26 @@
+package com.system.hotel_room_booking.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Response DTO for payment status checks and status change notifications
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusResponse {
+
+    private String transactionId;      // Internal transaction ID
+    private String status;             // Current payment status
+    private BigDecimal amount;         // Payment amount
+    private String currency;           // Currency code
+    private String paymentMethod;      // Payment method used, "N/A" until known
+    private String initiatedAt;        // When the payment was initiated
+    private String completedAt;        // When the payment completed, null otherwise
+}
@@ -0,0 +1,19 @@
+package com.system.hotel_room_booking.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewFeedResponse {
+
+    private List<ReviewResponse> reviews;
+    private String nextCursor; // pass back as cursor for the next page, null on the last page
+    private Boolean hasMore;
+}
@@ -0,0 +1,25 @@
+package com.system.hotel_room_booking.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomRatingSummaryResponse {
+
+    private Long roomId;
+    private Long reviewCount;
+    private Double averageRating;
+    private Double averageCleanliness;
+    private Double averageComfort;
+    private Double averageService;
+    private Double averageValueForMoney;
+    private Double averageLocation;
+    private Map<Integer, Long> ratingDistribution; // overall rating (1-5) -> number of reviews
+}
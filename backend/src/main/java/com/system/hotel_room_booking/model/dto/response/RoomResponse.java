@@ -31,6 +31,7 @@ public class RoomResponse {
     private Boolean isActive;
     private List<RoomImageResponse> images;
     private Set<AmenityResponse> amenities;
+    private RoomRatingSummaryResponse rating; // only filled when requested with includeRatings
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -21,7 +21,8 @@ import java.util.Set;
     @Index(name = "idx_booking_status", columnList = "status"),
     @Index(name = "idx_booking_check_in", columnList = "checkInDate"),
     @Index(name = "idx_booking_check_out", columnList = "checkOutDate"),
-    @Index(name = "idx_booking_confirmation", columnList = "confirmationNumber")
+    @Index(name = "idx_booking_confirmation", columnList = "confirmationNumber"),
+    @Index(name = "idx_booking_transaction_id", columnList = "transactionId")
 })
 @Data
 @NoArgsConstructor
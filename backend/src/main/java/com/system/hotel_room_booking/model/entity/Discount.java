@@ -9,6 +9,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -17,7 +18,9 @@ import java.util.Set;
 @Table(name = "discounts", indexes = {
     @Index(name = "idx_discount_code", columnList = "code"),
     @Index(name = "idx_discount_type", columnList = "type"),
-    @Index(name = "idx_discount_valid_dates", columnList = "validFrom, validUntil")
+    @Index(name = "idx_discount_valid_dates", columnList = "validFrom, validUntil"),
+    @Index(name = "idx_discount_campaign", columnList = "campaign"),
+    @Index(name = "idx_discount_created_at", columnList = "createdAt")
 })
 @Data
 @NoArgsConstructor
@@ -70,6 +73,24 @@ public class Discount {
     @Column(precision = 10, scale = 2)
     private BigDecimal maxDiscountAmount; // Maximum discount cap
     
+    @Column
+    private Integer minLeadDays; // Days between booking and check-in, at least (EARLY_BIRD)
+    
+    @Column
+    private Integer maxLeadDays; // Days between booking and check-in, at most (LAST_MINUTE)
+    
+    @Column
+    private LocalDate stayFrom; // Earliest check-in date (SEASONAL)
+    
+    @Column
+    private LocalDate stayUntil; // Latest check-in date (SEASONAL)
+    
+    @Column
+    private Integer minNights; // Minimum length of stay
+    
+    @Column
+    private Integer minUserBookings; // Previous bookings the user must have made (LOYALTY)
+    
     @Column(nullable = false)
     @Builder.Default
     private Boolean isActive = true;
@@ -77,6 +98,9 @@ public class Discount {
     @Column(columnDefinition = "TEXT")
     private String termsAndConditions;
     
+    @Column(length = 50)
+    private String campaign; // Code of the template a bulk-generated single-use code was created from
+    
     @OneToMany(mappedBy = "discount")
     @Builder.Default
     private Set<BookingDiscount> bookingDiscounts = new HashSet<>();
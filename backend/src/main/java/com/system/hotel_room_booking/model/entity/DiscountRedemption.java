@@ -0,0 +1,46 @@
+package com.system.hotel_room_booking.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user redemption counter for a discount, used to enforce maxUsagePerUser
+ * Rows are created and incremented with conditional SQL in DiscountRedemptionRepository
+ */
+@Entity
+@Table(name = "discount_redemptions",
+    uniqueConstraints = @UniqueConstraint(name = "uk_discount_redemption_discount_user", columnNames = {"discount_id", "user_id"}),
+    indexes = @Index(name = "idx_discount_redemption_user_id", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiscountRedemption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "discount_id", nullable = false)
+    private Discount discount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer redemptionCount = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
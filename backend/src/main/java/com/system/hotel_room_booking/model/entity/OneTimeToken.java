@@ -0,0 +1,46 @@
+package com.system.hotel_room_booking.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-use token sent by email (verification, email change, password reset)
+ * Only the SHA-256 of the token is stored; following a link is one probe of the unique hash index
+ */
+@Entity
+@Table(name = "one_time_tokens", indexes = {
+    @Index(name = "idx_one_time_token_user_purpose", columnList = "user_id, purpose"),
+    @Index(name = "idx_one_time_token_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OneTimeToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 43)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OneTimeTokenPurpose purpose;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
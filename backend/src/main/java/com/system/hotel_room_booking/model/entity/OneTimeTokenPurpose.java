@@ -0,0 +1,7 @@
+package com.system.hotel_room_booking.model.entity;
+
+public enum OneTimeTokenPurpose {
+    EMAIL_VERIFICATION,
+    EMAIL_CHANGE,
+    PASSWORD_RESET
+}
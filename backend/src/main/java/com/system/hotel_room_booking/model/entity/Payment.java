@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Entity to track all payment transactions
@@ -51,7 +55,23 @@ public class Payment {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id")
-    private Booking booking;
+    private Booking booking;          // Legacy single-booking link, superseded by bookings
+
+    // All bookings created from the paid cart (written in batch by BookingBatchRepository)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+        name = "payment_bookings",
+        joinColumns = @JoinColumn(name = "payment_id"),
+        inverseJoinColumns = @JoinColumn(name = "booking_id")
+    )
+    @Builder.Default
+    private Set<Booking> bookings = new HashSet<>();
+
+    // Discount redeemed at checkout, released again if the payment does not complete
+    @Column(name = "discount_id")
+    private Long discountId;
 
     // Payment details
     @Column(nullable = false, precision = 10, scale = 2)
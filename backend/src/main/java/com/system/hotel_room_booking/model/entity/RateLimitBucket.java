@@ -0,0 +1,39 @@
+package com.system.hotel_room_booking.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shared token bucket for cluster-wide rate limiting
+ * Rows are read and updated with compare-and-set SQL in RateLimitBucketRepository
+ */
+@Entity
+@Table(name = "rate_limit_buckets",
+    indexes = @Index(name = "idx_rate_limit_bucket_updated_at", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+
+    @Id
+    @Column(name = "bucket_key", length = 191)
+    private String bucketKey;
+
+    /**
+     * Tokens and last refill time of each bandwidth, as written by DistributedRateLimiter
+     */
+    @Column(nullable = false)
+    private String state;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
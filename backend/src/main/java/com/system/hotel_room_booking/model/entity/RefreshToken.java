@@ -10,8 +10,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
-    @Index(name = "idx_user_id", columnList = "user_id")
+    @Index(name = "idx_user_id", columnList = "user_id"),
+    @Index(name = "idx_refresh_token_family", columnList = "familyId"),
+    @Index(name = "idx_refresh_token_expires_at", columnList = "expiresAt"),
+    @Index(name = "idx_refresh_token_revoked_at", columnList = "revokedAt")
 })
 @Data
 @NoArgsConstructor
@@ -27,8 +29,13 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(nullable = false, unique = true, length = 500)
-    private String token;
+    // SHA-256 of the token handed to the client; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, length = 43)
+    private String tokenHash;
+    
+    // Shared by every token rotated from the same login
+    @Column(nullable = false, length = 43)
+    private String familyId;
     
     @Column(nullable = false)
     private LocalDateTime expiresAt;
@@ -39,6 +46,10 @@ public class RefreshToken {
     @Column
     private LocalDateTime revokedAt;
     
+    // Set when the token was exchanged for a new one; presenting it again means it was copied
+    @Column
+    private LocalDateTime rotatedAt;
+    
     @Column(length = 45)
     private String ipAddress;
     
@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
     @Index(name = "idx_review_booking_id", columnList = "booking_id"),
     @Index(name = "idx_review_user_id", columnList = "user_id"),
     @Index(name = "idx_review_room_id", columnList = "room_id"),
-    @Index(name = "idx_review_overall_rating", columnList = "overallRating")
+    @Index(name = "idx_review_overall_rating", columnList = "overallRating"),
+    @Index(name = "idx_review_room_published_created", columnList = "room_id, isPublished, createdAt"),
+    @Index(name = "idx_review_room_published_rating", columnList = "room_id, isPublished, overallRating, createdAt"),
+    @Index(name = "idx_review_room_published_responded", columnList = "room_id, isPublished, respondedAt"),
+    @Index(name = "idx_review_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
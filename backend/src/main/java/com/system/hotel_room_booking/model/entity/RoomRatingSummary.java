@@ -0,0 +1,68 @@
+package com.system.hotel_room_booking.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a room's published reviews
+ * Maintained incrementally by RoomRatingService as reviews are created, (un)published and deleted,
+ * so averages and the histogram never need an aggregate query
+ */
+@Entity
+@Table(name = "room_rating_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomRatingSummary {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(nullable = false)
+    private Long reviewCount;
+
+    // Sums of each rating dimension, divided by reviewCount for the averages
+    @Column(nullable = false)
+    private Long overallSum;
+
+    @Column(nullable = false)
+    private Long cleanlinessSum;
+
+    @Column(nullable = false)
+    private Long comfortSum;
+
+    @Column(nullable = false)
+    private Long serviceSum;
+
+    @Column(nullable = false)
+    private Long valueForMoneySum;
+
+    @Column(nullable = false)
+    private Long locationSum;
+
+    // Histogram of overall ratings
+    @Column(name = "rating_1_count", nullable = false)
+    private Long rating1Count;
+
+    @Column(name = "rating_2_count", nullable = false)
+    private Long rating2Count;
+
+    @Column(name = "rating_3_count", nullable = false)
+    private Long rating3Count;
+
+    @Column(name = "rating_4_count", nullable = false)
+    private Long rating4Count;
+
+    @Column(name = "rating_5_count", nullable = false)
+    private Long rating5Count;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
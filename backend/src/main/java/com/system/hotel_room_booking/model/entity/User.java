@@ -16,7 +16,8 @@ import java.util.Set;
 @Table(name = "users", indexes = {
     @Index(name = "idx_email", columnList = "email"),
     @Index(name = "idx_username", columnList = "username"),
-    @Index(name = "idx_api_key", columnList = "apiKey")
+    @Index(name = "idx_api_key", columnList = "apiKey"),
+    @Index(name = "idx_users_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
@@ -77,29 +78,10 @@ public class User {
     @Builder.Default
     private Boolean accountNonLocked = true;
     
-    @Column(length = 255)
-    private String emailVerificationToken;
-    
-    @Column
-    private LocalDateTime emailVerificationTokenExpiresAt;
-    
-    // Email change verification fields
+    // Email change awaiting verification; its token lives in one_time_tokens
     @Column(length = 100)
     private String pendingEmail;
     
-    @Column(length = 255)
-    private String emailChangeToken;
-    
-    @Column
-    private LocalDateTime emailChangeTokenExpiresAt;
-    
-    // Password reset fields
-    @Column(length = 255)
-    private String passwordResetToken;
-    
-    @Column
-    private LocalDateTime passwordResetTokenExpiresAt;
-    
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
@@ -133,6 +115,11 @@ public class User {
     @Column
     private String lastLoginIp;
     
+    // Embedded in access tokens; bumping it invalidates every token issued before
+    @Column(nullable = false)
+    @Builder.Default
+    private Long tokenVersion = 0L;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
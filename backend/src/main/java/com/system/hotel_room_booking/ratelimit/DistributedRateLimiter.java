@@ -0,0 +1,319 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.system.hotel_room_booking.repository.RateLimitBucketRepository;
+import com.system.hotel_room_booking.repository.RateLimitBucketRepository.BucketRow;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets shared by every instance through the rate_limit_buckets table
+ * A bucket row is updated by compare-and-set on its version, retried on conflict, so no lock is held
+ * Each instance takes tokens from the shared bucket in small batches and spends them locally,
+ * so most requests never reach the database; tokens left when a batch expires are lost, which makes
+ * the limit slightly stricter, never looser
+ * Refill uses each instance's clock, so instances are expected to be time-synchronized
+ * When the shared store fails, it is skipped for rate-limit.distributed.cooldown-ms and callers use their
+ * local buckets, so an outage does not add a failing database round trip to every request
+ */
+@Component
+@Slf4j
+public class DistributedRateLimiter {
+
+    private static final int MAX_COMPARE_AND_SET_ATTEMPTS = 5;
+
+    // A batch never takes more than this share of the tightest limit, so small limits stay exact
+    private static final int MAX_BATCH_SHARE_DIVISOR = 4;
+
+    private final RateLimitBucketRepository rateLimitBucketRepository;
+    private final boolean enabled;
+    private final long batchSize;
+    private final long leaseMs;
+    private final long bucketIdleMs;
+    private final long cooldownMs;
+    private final int purgeBatchSize;
+    private final Cache<String, Lease> leases;
+    private final Counter sharedGrants;
+    private final Counter sharedRejections;
+    private final Counter conflicts;
+
+    private volatile long sharedStoreDownUntil;
+
+    /**
+     * Tokens an instance took from a shared bucket and has not spent yet
+     */
+    private static final class Lease {
+        private long tokens;
+        private long expiresAt;
+        private long blockedUntil;
+        // Tokens left in the shared bucket when this batch was taken
+        private long sharedRemaining;
+    }
+
+    /**
+     * Outcome of taking tokens from a shared bucket
+     */
+    private record Acquisition(long granted, long remaining, long nanosToWait) {
+    }
+
+    public DistributedRateLimiter(RateLimitBucketRepository rateLimitBucketRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${rate-limit.distributed.enabled:false}") boolean enabled,
+                                  @Value("${rate-limit.distributed.batch-size:10}") long batchSize,
+                                  @Value("${rate-limit.distributed.lease-ms:1000}") long leaseMs,
+                                  @Value("${rate-limit.distributed.lease-cache-size:100000}") long leaseCacheSize,
+                                  @Value("${rate-limit.distributed.purge-batch-size:1000}") int purgeBatchSize,
+                                  @Value("${rate-limit.distributed.cooldown-ms:30000}") long cooldownMs,
+                                  @Value("${rate-limit.bucket-idle-ms:3600000}") long bucketIdleMs) {
+        this.rateLimitBucketRepository = rateLimitBucketRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.bucketIdleMs = bucketIdleMs;
+        this.cooldownMs = cooldownMs;
+        this.purgeBatchSize = purgeBatchSize;
+        this.leases = Caffeine.newBuilder()
+            .maximumSize(leaseCacheSize)
+            .expireAfterAccess(Duration.ofMillis(Math.max(leaseMs, 1000) * 10))
+            .build();
+
+        this.sharedGrants = Counter.builder("rate.limit.distributed.acquisitions")
+            .tag("outcome", "granted")
+            .register(meterRegistry);
+        this.sharedRejections = Counter.builder("rate.limit.distributed.acquisitions")
+            .tag("outcome", "rejected")
+            .register(meterRegistry);
+        this.conflicts = Counter.builder("rate.limit.distributed.conflicts")
+            .description("Shared bucket updates lost to another instance and retried")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take one token for the key, from this instance's batch when it has one left
+     *
+     * @return the outcome, or null when the shared store cannot be reached and the caller should use its local bucket
+     */
+    public ConsumptionProbe tryConsume(String key, RateLimitTier tier) {
+        if (System.currentTimeMillis() < sharedStoreDownUntil) {
+            return null;
+        }
+        Lease lease = leases.get(key, k -> new Lease());
+        // One request per key and instance goes to the database; the others wait for its batch
+        synchronized (lease) {
+            long now = System.currentTimeMillis();
+            if (lease.tokens > 0 && now < lease.expiresAt) {
+                lease.tokens--;
+                return ConsumptionProbe.consumed(lease.tokens + lease.sharedRemaining, 0);
+            }
+            if (now < lease.blockedUntil) {
+                return ConsumptionProbe.rejected(0, TimeUnit.MILLISECONDS.toNanos(lease.blockedUntil - now), 0);
+            }
+
+            Acquisition acquisition = acquire(key, tier, now);
+            if (acquisition == null) {
+                return null;
+            }
+            if (acquisition.granted() == 0) {
+                sharedRejections.increment();
+                lease.tokens = 0;
+                lease.blockedUntil = now + TimeUnit.NANOSECONDS.toMillis(acquisition.nanosToWait());
+                return ConsumptionProbe.rejected(acquisition.remaining(), acquisition.nanosToWait(), 0);
+            }
+
+            sharedGrants.increment();
+            lease.tokens = acquisition.granted() - 1;
+            lease.expiresAt = now + leaseMs;
+            lease.sharedRemaining = acquisition.remaining();
+            return ConsumptionProbe.consumed(lease.tokens + lease.sharedRemaining, 0);
+        }
+    }
+
+    /**
+     * Delete shared buckets idle for longer than rate-limit.bucket-idle-ms, in chunks
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.distributed.purge-ms:3600000}",
+               initialDelayString = "${rate-limit.distributed.purge-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(bucketIdleMs));
+
+        long total = 0;
+        int deleted;
+        do {
+            deleted = rateLimitBucketRepository.deleteIdle(before, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} idle shared rate limit buckets", total);
+        }
+    }
+
+    private Acquisition acquire(String key, RateLimitTier tier, long now) {
+        Bandwidth[] bandwidths = tier.configuration().getBandwidths();
+        long wanted = Math.max(1, Math.min(batchSize, tier.limit() / MAX_BATCH_SHARE_DIVISOR));
+
+        try {
+            for (int attempt = 0; attempt < MAX_COMPARE_AND_SET_ATTEMPTS; attempt++) {
+                Optional<BucketRow> row = rateLimitBucketRepository.find(key);
+                long[] state = row.map(r -> decode(r.state(), bandwidths.length)).orElse(null);
+                if (state == null) {
+                    // New bucket, or its policy was reloaded with different limits
+                    state = full(bandwidths, now);
+                } else {
+                    refill(state, bandwidths, now);
+                }
+
+                long available = available(state);
+                if (available < 1) {
+                    return new Acquisition(0, 0, nanosToWait(state, bandwidths, now));
+                }
+
+                long granted = Math.min(wanted, available);
+                for (int i = 0; i < state.length; i += 2) {
+                    state[i] -= granted;
+                }
+
+                String encoded = encode(state);
+                LocalDateTime updatedAt = LocalDateTime.now();
+                boolean written = row.isPresent()
+                    ? rateLimitBucketRepository.compareAndSet(key, row.get().version(), encoded, updatedAt)
+                    : rateLimitBucketRepository.insertIfAbsent(key, encoded, updatedAt);
+                if (written) {
+                    return new Acquisition(granted, available - granted, 0);
+                }
+                conflicts.increment();
+            }
+            // Heavily contended key: treat as exhausted for a moment rather than let it through
+            log.debug("Gave up updating shared rate limit bucket {} after {} conflicts", key, MAX_COMPARE_AND_SET_ATTEMPTS);
+            return new Acquisition(0, 0, TimeUnit.MILLISECONDS.toNanos(100));
+        } catch (DataAccessException e) {
+            sharedStoreDownUntil = System.currentTimeMillis() + cooldownMs;
+            log.warn("Shared rate limit store unavailable, using local buckets for {} ms: {}", cooldownMs, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * State layout: tokens and last refill time (epoch millis) of each bandwidth, in order
+     */
+    private static long[] full(Bandwidth[] bandwidths, long now) {
+        long[] state = new long[bandwidths.length * 2];
+        for (int i = 0; i < bandwidths.length; i++) {
+            state[2 * i] = bandwidths[i].getCapacity();
+            state[2 * i + 1] = now;
+        }
+        return state;
+    }
+
+    /**
+     * Same refill rules as a local bucket: greedy adds tokens continuously, intervally adds them
+     * all at the end of each period
+     * Only time that produced whole tokens is consumed, so no fraction of a token is lost
+     */
+    private static void refill(long[] state, Bandwidth[] bandwidths, long now) {
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            long elapsed = now - state[2 * i + 1];
+            if (elapsed <= 0) {
+                continue;
+            }
+            long periodMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(bandwidth.getRefillPeriodNanos()));
+            long added;
+            long advanced;
+            if (bandwidth.isRefillIntervally()) {
+                long periods = elapsed / periodMs;
+                added = periods * bandwidth.getRefillTokens();
+                advanced = periods * periodMs;
+            } else {
+                added = elapsed * bandwidth.getRefillTokens() / periodMs;
+                advanced = added * periodMs / bandwidth.getRefillTokens();
+            }
+            if (added == 0) {
+                continue;
+            }
+            if (state[2 * i] + added >= bandwidth.getCapacity()) {
+                state[2 * i] = bandwidth.getCapacity();
+                state[2 * i + 1] = now;
+            } else {
+                state[2 * i] += added;
+                state[2 * i + 1] += advanced;
+            }
+        }
+    }
+
+    private static long available(long[] state) {
+        long available = Long.MAX_VALUE;
+        for (int i = 0; i < state.length; i += 2) {
+            available = Math.min(available, state[i]);
+        }
+        return available;
+    }
+
+    private static long nanosToWait(long[] state, Bandwidth[] bandwidths, long now) {
+        long waitMs = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            if (state[2 * i] >= 1) {
+                continue;
+            }
+            Bandwidth bandwidth = bandwidths[i];
+            long periodMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(bandwidth.getRefillPeriodNanos()));
+            long perToken = bandwidth.isRefillIntervally()
+                ? periodMs
+                : (periodMs + bandwidth.getRefillTokens() - 1) / bandwidth.getRefillTokens();
+            waitMs = Math.max(waitMs, perToken - (now - state[2 * i + 1]));
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(waitMs, 1));
+    }
+
+    private static String encode(long[] state) {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < state.length; i += 2) {
+            if (i > 0) {
+                encoded.append(',');
+            }
+            encoded.append(state[i]).append(':').append(state[i + 1]);
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @return the state, or null when it was written for a different number of bandwidths or is unreadable
+     */
+    private static long[] decode(String encoded, int bandwidthCount) {
+        String[] parts = encoded.split(",");
+        if (parts.length != bandwidthCount) {
+            return null;
+        }
+        long[] state = new long[bandwidthCount * 2];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                int separator = parts[i].indexOf(':');
+                state[2 * i] = Long.parseLong(parts[i], 0, separator, 10);
+                state[2 * i + 1] = Long.parseLong(parts[i], separator + 1, parts[i].length(), 10);
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return state;
+    }
+}
@@ -1,14 +1,18 @@
 package com.system.hotel_room_booking.ratelimit;
 
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Interceptor to enforce rate limiting on API endpoints
  */
@@ -18,6 +22,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 public class RateLimitInterceptor implements HandlerInterceptor {
     
     private final RateLimitService rateLimitService;
+    private final RateLimitPolicyRegistry rateLimitPolicyRegistry;
     
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) 
@@ -27,27 +32,31 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
             
             if (rateLimited != null) {
-                boolean allowed = rateLimitService.tryConsume(request, rateLimited);
+                RateLimitPolicy policy = rateLimitPolicyRegistry.resolve(handlerMethod, rateLimited);
+                RateLimitTier tier = policy.tierFor(SecurityContextHolder.getContext().getAuthentication());
+                ConsumptionProbe probe = rateLimitService.tryConsume(request, policy, tier);
                 
-                if (!allowed) {
-                    log.warn("Rate limit exceeded for {} from IP: {}", 
+                if (!probe.isConsumed()) {
+                    log.warn("Rate limit {} exceeded for {} from IP: {}", 
+                        policy.name(),
                         request.getRequestURI(), 
                         getClientIp(request));
                     
                     response.setStatus(429); // Too Many Requests
+                    response.setHeader("Retry-After",
+                        String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()))));
                     response.setContentType("application/json");
                     response.getWriter().write(
                         String.format("{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded. Please try again later.\",\"limit\":%d,\"duration\":%d}",
-                            rateLimited.limit(), rateLimited.duration())
+                            tier.limit(), tier.durationSeconds())
                     );
                     return false;
                 }
                 
                 // Add rate limit headers to response
-                long availableTokens = rateLimitService.getAvailableTokens(request, rateLimited);
-                response.addHeader("X-Rate-Limit-Limit", String.valueOf(rateLimited.limit()));
-                response.addHeader("X-Rate-Limit-Remaining", String.valueOf(availableTokens));
-                response.addHeader("X-Rate-Limit-Duration", String.valueOf(rateLimited.duration()));
+                response.addHeader("X-Rate-Limit-Limit", String.valueOf(tier.limit()));
+                response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+                response.addHeader("X-Rate-Limit-Duration", String.valueOf(tier.durationSeconds()));
             }
         }
         
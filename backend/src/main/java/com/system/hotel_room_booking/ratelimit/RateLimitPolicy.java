@@ -0,0 +1,32 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Resolved rate limit policy of a route
+ *
+ * @param roleTiers tiers for specific roles, checked in order
+ */
+public record RateLimitPolicy(String name,
+                              RateLimitType type,
+                              RateLimitTier defaultTier,
+                              RateLimitTier[] roleTiers) {
+    
+    /**
+     * Tier of the first role the caller has, or the default tier
+     */
+    public RateLimitTier tierFor(Authentication authentication) {
+        if (roleTiers.length == 0 || authentication == null || !authentication.isAuthenticated()) {
+            return defaultTier;
+        }
+        for (RateLimitTier tier : roleTiers) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (tier.role().equals(authority.getAuthority())) {
+                    return tier;
+                }
+            }
+        }
+        return defaultTier;
+    }
+}
@@ -0,0 +1,64 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit policies as configured under the rate-limit prefix, e.g.
+ * <pre>
+ * rate-limit.policies.login.type=IP
+ * rate-limit.policies.login.limits[0].capacity=10
+ * rate-limit.policies.login.limits[0].period=10s
+ * rate-limit.policies.login.limits[1].capacity=50
+ * rate-limit.policies.login.limits[1].period=1h
+ * rate-limit.policies.login.tiers.ROLE_ADMIN[0].capacity=100
+ * rate-limit.policies.login.tiers.ROLE_ADMIN[0].period=10s
+ * </pre>
+ */
+@Data
+public class RateLimitPolicyProperties {
+    
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+    
+    @Data
+    public static class Policy {
+        
+        /**
+         * What the bucket is keyed by; the annotation's type when not set
+         */
+        private RateLimitType type;
+        
+        /**
+         * Limits for callers without a matching tier, typically a burst and a sustained limit
+         */
+        private List<Limit> limits = new ArrayList<>();
+        
+        /**
+         * Limits per role, checked in order; the first role the caller has wins
+         */
+        private Map<String, List<Limit>> tiers = new LinkedHashMap<>();
+    }
+    
+    @Data
+    public static class Limit {
+        
+        private long capacity;
+        
+        /**
+         * Tokens added back each period; the capacity when not set
+         */
+        private Long refillTokens;
+        
+        private Duration period;
+        
+        /**
+         * Refill gradually over the period instead of all at once at its end
+         */
+        private boolean greedy;
+    }
+}
@@ -0,0 +1,222 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BandwidthBuilder;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the rate limit policy of each route
+ * Configured policies come from the application properties, overridden by the optional
+ * rate-limit.policies-file, which is polled and reloaded without a restart
+ * Routes without a configured policy use the limits of their @RateLimited annotation
+ * Resolved policies are cached per handler method, so the request path only does a map lookup
+ */
+@Component
+@Slf4j
+public class RateLimitPolicyRegistry {
+
+    private static final String PREFIX = "rate-limit";
+    private static final String DEFAULT_TIER = "default";
+
+    private final Environment environment;
+    private final String policiesFile;
+
+    private volatile Index index = new Index(Map.of(), new ConcurrentHashMap<>());
+    private long policiesFileModified = -1;
+
+    /**
+     * Configured policies by lower-cased name, and the policies resolved from them so far
+     * Replaced as a whole on every reload
+     */
+    private record Index(Map<String, RateLimitPolicyProperties.Policy> configured,
+                         ConcurrentHashMap<Method, RateLimitPolicy> routes) {
+    }
+
+    public RateLimitPolicyRegistry(Environment environment,
+                                   @Value("${rate-limit.policies-file:}") String policiesFile) {
+        this.environment = environment;
+        this.policiesFile = policiesFile;
+        reload();
+    }
+
+    /**
+     * Policy for the route, built on first use
+     */
+    public RateLimitPolicy resolve(HandlerMethod handlerMethod, RateLimited rateLimited) {
+        Index current = index;
+        RateLimitPolicy policy = current.routes().get(handlerMethod.getMethod());
+        if (policy == null) {
+            policy = current.routes().computeIfAbsent(handlerMethod.getMethod(),
+                method -> build(current, handlerMethod, rateLimited));
+        }
+        return policy;
+    }
+
+    /**
+     * Reload the policies when the policies file has changed
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.policies-refresh-ms:10000}",
+               initialDelayString = "${rate-limit.policies-refresh-ms:10000}")
+    public void reloadIfChanged() {
+        if (!StringUtils.hasText(policiesFile)) {
+            return;
+        }
+        long modified = lastModified(Path.of(policiesFile));
+        if (modified != policiesFileModified) {
+            reload();
+        }
+    }
+
+    /**
+     * Rebuild the policies from configuration
+     * An invalid configuration is logged and the previous policies stay in effect
+     */
+    public synchronized void reload() {
+        Path file = StringUtils.hasText(policiesFile) ? Path.of(policiesFile) : null;
+        if (file != null) {
+            policiesFileModified = lastModified(file);
+        }
+
+        try {
+            List<ConfigurationPropertySource> sources = new ArrayList<>();
+            if (file != null && Files.isRegularFile(file)) {
+                sources.add(new MapConfigurationPropertySource(readProperties(file)));
+            }
+            ConfigurationPropertySources.get(environment).forEach(sources::add);
+
+            RateLimitPolicyProperties properties = new Binder(sources, new PropertySourcesPlaceholdersResolver(environment))
+                .bind(PREFIX, RateLimitPolicyProperties.class)
+                .orElseGet(RateLimitPolicyProperties::new);
+
+            Map<String, RateLimitPolicyProperties.Policy> configured = new HashMap<>();
+            properties.getPolicies().forEach((name, policy) -> {
+                // Fail the whole reload on a bad policy rather than at its first request
+                if (!policy.getLimits().isEmpty()) {
+                    toTier(name, null, policy.getLimits());
+                }
+                policy.getTiers().forEach((role, limits) -> toTier(name, normalizeRole(role), limits));
+                configured.put(name.toLowerCase(Locale.ROOT), policy);
+            });
+
+            index = new Index(Map.copyOf(configured), new ConcurrentHashMap<>());
+            log.info("Loaded {} rate limit policies", configured.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Invalid rate limit policies, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+
+    private RateLimitPolicy build(Index current, HandlerMethod handlerMethod, RateLimited rateLimited) {
+        String name = StringUtils.hasText(rateLimited.policy())
+            ? rateLimited.policy()
+            : handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        RateLimitPolicyProperties.Policy configured = current.configured().get(name.toLowerCase(Locale.ROOT));
+
+        if (configured == null) {
+            return new RateLimitPolicy(name, rateLimited.type(), annotationTier(name, rateLimited), new RateLimitTier[0]);
+        }
+
+        // A policy may configure only role tiers and keep the annotation's limits for everyone else
+        RateLimitTier defaultTier = configured.getLimits().isEmpty()
+            ? annotationTier(name, rateLimited)
+            : toTier(name, null, configured.getLimits());
+        return new RateLimitPolicy(name, typeOf(configured, rateLimited), defaultTier, roleTiers(name, configured));
+    }
+
+    private static RateLimitTier annotationTier(String name, RateLimited rateLimited) {
+        RateLimitPolicyProperties.Limit limit = new RateLimitPolicyProperties.Limit();
+        limit.setCapacity(rateLimited.limit());
+        limit.setPeriod(Duration.ofSeconds(rateLimited.duration()));
+        return toTier(name, null, List.of(limit));
+    }
+
+    private static RateLimitType typeOf(RateLimitPolicyProperties.Policy configured, RateLimited rateLimited) {
+        return configured.getType() != null ? configured.getType() : rateLimited.type();
+    }
+
+    private static RateLimitTier[] roleTiers(String name, RateLimitPolicyProperties.Policy configured) {
+        return configured.getTiers().entrySet().stream()
+            .map(entry -> toTier(name, normalizeRole(entry.getKey()), entry.getValue()))
+            .toArray(RateLimitTier[]::new);
+    }
+
+    private static RateLimitTier toTier(String policyName, String role, List<RateLimitPolicyProperties.Limit> limits) {
+        if (limits.isEmpty()) {
+            throw new IllegalArgumentException("Rate limit policy " + policyName + " has no limits for " + tierName(role));
+        }
+
+        ConfigurationBuilder configuration = BucketConfiguration.builder();
+        RateLimitPolicyProperties.Limit tightest = null;
+        for (RateLimitPolicyProperties.Limit limit : limits) {
+            if (limit.getCapacity() <= 0 || limit.getPeriod() == null || limit.getPeriod().isNegative() || limit.getPeriod().isZero()) {
+                throw new IllegalArgumentException("Rate limit policy " + policyName + " needs a positive capacity and period for " + tierName(role));
+            }
+            long refillTokens = limit.getRefillTokens() != null ? limit.getRefillTokens() : limit.getCapacity();
+            BandwidthBuilder.BandwidthBuilderRefillStage stage = Bandwidth.builder().capacity(limit.getCapacity());
+            configuration.addLimit(limit.isGreedy()
+                ? stage.refillGreedy(refillTokens, limit.getPeriod()).build()
+                : stage.refillIntervally(refillTokens, limit.getPeriod()).build());
+            if (tightest == null || limit.getCapacity() < tightest.getCapacity()) {
+                tightest = limit;
+            }
+        }
+
+        return new RateLimitTier(role, policyName + ":" + tierName(role) + ":", configuration.build(),
+            tightest.getCapacity(), tightest.getPeriod().toSeconds());
+    }
+
+    private static String tierName(String role) {
+        return role != null ? role : DEFAULT_TIER;
+    }
+
+    /**
+     * Accepts ADMIN as well as ROLE_ADMIN, in any case
+     */
+    private static String normalizeRole(String role) {
+        String upper = role.trim().toUpperCase(Locale.ROOT);
+        return upper.startsWith("ROLE_") ? upper : "ROLE_" + upper;
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -1,37 +1,99 @@
 package com.system.hotel_room_booking.ratelimit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import lombok.RequiredArgsConstructor;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service to manage rate limiting buckets for API endpoints
+ * Buckets live in a bounded cache weighed by estimated memory use and dropped after a period
+ * without requests, so a scan from many addresses cannot grow the heap without limit
+ * With rate-limit.distributed.enabled the buckets are shared by all instances through DistributedRateLimiter,
+ * and the local buckets only serve while the database cannot be reached
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RateLimitService {
     
-    private final CacheManager cacheManager;
-    private final Map<String, Bucket> bucketCache = new ConcurrentHashMap<>();
+    public static final String CACHE_NAME = "rateLimitBuckets";
+    
+    // Rough heap cost of a local bucket, plus the cache entry around it, and of each bandwidth it enforces
+    private static final int ESTIMATED_BUCKET_BYTES = 320;
+    private static final int ESTIMATED_BANDWIDTH_BYTES = 96;
+    
+    private final Cache<String, PolicyBucket> bucketCache;
+    private final DistributedRateLimiter distributedRateLimiter;
+    
+    public RateLimitService(MeterRegistry meterRegistry,
+                            DistributedRateLimiter distributedRateLimiter,
+                            @Value("${rate-limit.bucket-idle-ms:3600000}") long bucketIdleMs,
+                            @Value("${rate-limit.bucket-store-max-bytes:67108864}") long maxBytes) {
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.bucketCache = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMillis(bucketIdleMs))
+            .maximumWeight(maxBytes)
+            .weigher((String key, PolicyBucket entry) ->
+                ESTIMATED_BUCKET_BYTES + ESTIMATED_BANDWIDTH_BYTES * entry.configuration.getBandwidths().length + 2 * key.length())
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, bucketCache, CACHE_NAME);
+        Gauge.builder("rate.limit.buckets.estimated.bytes", bucketCache,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+            .description("Estimated heap used by rate limit buckets")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
     
     /**
-     * Resolve bucket for the request based on rate limit configuration
+     * Bucket of a policy tier and the configuration it was last built or reconfigured with
      */
-    public Bucket resolveBucket(HttpServletRequest request, RateLimited rateLimited) {
-        String key = generateKey(request, rateLimited.type());
+    private static final class PolicyBucket {
+        
+        private final Bucket bucket;
+        private volatile BucketConfiguration configuration;
         
-        return bucketCache.computeIfAbsent(key, k -> createBucket(rateLimited));
+        private PolicyBucket(BucketConfiguration configuration) {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            this.bucket = builder.build();
+            this.configuration = configuration;
+        }
+        
+        /**
+         * Apply a reloaded policy, keeping the tokens already consumed
+         */
+        private Bucket withConfiguration(BucketConfiguration current) {
+            if (configuration != current) {
+                synchronized (this) {
+                    if (configuration != current) {
+                        if (!configuration.equals(current)) {
+                            bucket.replaceConfiguration(current, TokensInheritanceStrategy.AS_IS);
+                        }
+                        configuration = current;
+                    }
+                }
+            }
+            return bucket;
+        }
     }
     
     /**
@@ -56,20 +118,6 @@ public class RateLimitService {
         };
     }
     
-    /**
-     * Create a new bucket with specified limits
-     */
-    private Bucket createBucket(RateLimited rateLimited) {
-        Bandwidth limit = Bandwidth.builder()
-            .capacity(rateLimited.limit())
-            .refillIntervally(rateLimited.limit(), Duration.ofSeconds(rateLimited.duration()))
-            .build();
-        
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-    
     /**
      * Get client IP address from request
      */
@@ -82,18 +130,21 @@ public class RateLimitService {
     }
     
     /**
-     * Check if request is allowed under rate limit
+     * Take one token from the caller's bucket of the policy tier and report what is left
+     * Buckets are keyed by policy and tier, so routes never share a bucket
      */
-    public boolean tryConsume(HttpServletRequest request, RateLimited rateLimited) {
-        Bucket bucket = resolveBucket(request, rateLimited);
-        return bucket.tryConsume(1);
-    }
-    
-    /**
-     * Get available tokens for debugging/monitoring
-     */
-    public long getAvailableTokens(HttpServletRequest request, RateLimited rateLimited) {
-        Bucket bucket = resolveBucket(request, rateLimited);
-        return bucket.getAvailableTokens();
+    public ConsumptionProbe tryConsume(HttpServletRequest request, RateLimitPolicy policy, RateLimitTier tier) {
+        String key = tier.keyPrefix() + generateKey(request, policy.type());
+        if (distributedRateLimiter.isEnabled()) {
+            ConsumptionProbe probe = distributedRateLimiter.tryConsume(key, tier);
+            if (probe != null) {
+                return probe;
+            }
+        }
+        PolicyBucket entry = bucketCache.getIfPresent(key);
+        if (entry == null) {
+            entry = bucketCache.get(key, k -> new PolicyBucket(tier.configuration()));
+        }
+        return entry.withConfiguration(tier.configuration()).tryConsumeAndReturnRemaining(1);
     }
 }
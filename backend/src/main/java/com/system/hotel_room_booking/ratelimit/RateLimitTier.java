@@ -0,0 +1,17 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Limits of a policy for one role, or for everyone else when role is null
+ *
+ * @param keyPrefix       bucket key prefix, unique per policy and tier
+ * @param limit           capacity of the tightest limit, reported in response headers
+ * @param durationSeconds period of the tightest limit, reported in response headers
+ */
+public record RateLimitTier(String role,
+                            String keyPrefix,
+                            BucketConfiguration configuration,
+                            long limit,
+                            long durationSeconds) {
+}
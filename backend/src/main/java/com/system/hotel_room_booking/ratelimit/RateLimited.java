@@ -7,6 +7,7 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation to apply rate limiting to controller methods
+ * The limits given here apply unless a policy of the same name is configured under rate-limit.policies
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -26,4 +27,9 @@ public @interface RateLimited {
      * Rate limit type (IP-based or user-based)
      */
     RateLimitType type() default RateLimitType.IP;
+    
+    /**
+     * Policy name, also the bucket namespace; defaults to ControllerName.methodName
+     */
+    String policy() default "";
 }
@@ -0,0 +1,100 @@
+package com.system.hotel_room_booking.repository;
+
+import com.system.hotel_room_booking.model.entity.Booking;
+import com.system.hotel_room_booking.model.entity.Payment;
+import com.system.hotel_room_booking.model.entity.RoomStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC batch writer for bookings created from a paid cart
+ * IDENTITY ids disable Hibernate insert batching, so the whole cart is written with plain JDBC batches:
+ * one batch for the bookings, one for the payment links and a single UPDATE for the rooms
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+
+    private static final String INSERT_BOOKING_SQL =
+            "INSERT INTO bookings (confirmation_number, user_id, room_id, status, check_in_date, check_out_date, " +
+            "number_of_guests, total_price, discount_amount, final_price, transaction_id, paid_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_BOOKING_IDS_SQL =
+            "SELECT id, confirmation_number FROM bookings WHERE transaction_id = ?";
+
+    private static final String INSERT_PAYMENT_BOOKING_SQL =
+            "INSERT INTO payment_bookings (payment_id, booking_id) VALUES (?, ?)";
+
+    private static final String RESERVE_ROOMS_SQL =
+            "UPDATE rooms SET status = :status, updated_at = :now WHERE id IN (:roomIds)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Insert all bookings of a payment, link them to it and reserve their rooms
+     * Generated ids are written back to the given booking objects
+     */
+    public void insertPaidBookings(Payment payment, List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, bookings, bookings.size(), (ps, booking) -> {
+            ps.setString(1, booking.getConfirmationNumber());
+            ps.setLong(2, booking.getUser().getId());
+            ps.setLong(3, booking.getRoom().getId());
+            ps.setString(4, booking.getStatus().name());
+            ps.setObject(5, booking.getCheckInDate());
+            ps.setObject(6, booking.getCheckOutDate());
+            ps.setInt(7, booking.getNumberOfGuests());
+            ps.setBigDecimal(8, booking.getTotalPrice());
+            ps.setBigDecimal(9, booking.getDiscountAmount());
+            ps.setBigDecimal(10, booking.getFinalPrice());
+            ps.setString(11, booking.getTransactionId());
+            ps.setObject(12, booking.getPaidAt());
+            ps.setObject(13, now);
+            ps.setObject(14, now);
+        });
+
+        // Resolve generated ids in one round trip (indexed by idx_booking_transaction_id)
+        Map<String, Long> idsByConfirmation = new HashMap<>();
+        jdbcTemplate.query(SELECT_BOOKING_IDS_SQL,
+                (RowCallbackHandler) rs -> idsByConfirmation.put(rs.getString(2), rs.getLong(1)),
+                payment.getTransactionId());
+
+        for (Booking booking : bookings) {
+            booking.setId(idsByConfirmation.get(booking.getConfirmationNumber()));
+            booking.setCreatedAt(now);
+            booking.setUpdatedAt(now);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_BOOKING_SQL, bookings, bookings.size(), (ps, booking) -> {
+            ps.setLong(1, payment.getId());
+            ps.setLong(2, booking.getId());
+        });
+
+        Set<Long> roomIds = bookings.stream()
+                .map(booking -> booking.getRoom().getId())
+                .collect(Collectors.toSet());
+
+        namedParameterJdbcTemplate.update(RESERVE_ROOMS_SQL, new MapSqlParameterSource()
+                .addValue("status", RoomStatus.RESERVED.name())
+                .addValue("now", now)
+                .addValue("roomIds", roomIds));
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,6 +48,9 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.status = :status")
     Long countByStatus(@Param("status") BookingStatus status);
     
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.user.id = :userId AND b.status IN :statuses")
+    long countByUserIdAndStatusIn(@Param("userId") Long userId, @Param("statuses") Collection<BookingStatus> statuses);
+    
     @Query("SELECT b FROM Booking b WHERE b.createdAt BETWEEN :start AND :end")
     List<Booking> findBookingsInRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,149 @@
+package com.system.hotel_room_booking.repository;
+
+import com.system.hotel_room_booking.model.entity.Discount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access for bulk-generated campaign codes
+ * Codes are written with multi-row INSERT IGNORE statements, one round trip per chunk,
+ * and read back as plain code streams without loading entities
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiscountCodeBatchRepository {
+
+    private static final String INSERT_CODES_PREFIX =
+            "INSERT IGNORE INTO discounts (code, campaign, name, description, type, percentage_value, fixed_amount, " +
+            "valid_from, valid_until, max_usage_count, current_usage_count, max_usage_per_user, min_order_amount, " +
+            "max_discount_amount, min_lead_days, max_lead_days, stay_from, stay_until, min_nights, min_user_bookings, " +
+            "is_active, terms_and_conditions, created_at, updated_at) VALUES ";
+
+    private static final String INSERT_CODES_ROW =
+            "(?, ?, ?, ?, ?, ?, ?, ?, ?, 1, 0, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int PARAMETERS_PER_ROW = 21;
+
+    /**
+     * Most codes one insertCampaignCodes call can take: MySQL allows 65,535 placeholders per statement
+     */
+    public static final int MAX_CODES_PER_INSERT = 65_535 / PARAMETERS_PER_ROW;
+
+    private static final String SELECT_CODES_AFTER_SQL =
+            "SELECT id, code FROM discounts WHERE id > ? ORDER BY id";
+
+    private static final String SELECT_CODES_CREATED_SINCE_SQL =
+            "SELECT code FROM discounts WHERE created_at >= ?";
+
+    private static final String SELECT_CAMPAIGN_CODES_SQL =
+            "SELECT code FROM discounts WHERE campaign = ? ORDER BY id";
+
+    private static final String COUNT_CODES_SQL = "SELECT COUNT(*) FROM discounts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert single-use copies of the template discount, one per code
+     * Codes that already exist are skipped
+     * @return number of codes actually inserted
+     */
+    public int insertCampaignCodes(Discount template, String campaign, List<String> codes) {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+
+        if (codes.size() > MAX_CODES_PER_INSERT) {
+            throw new IllegalArgumentException("At most " + MAX_CODES_PER_INSERT + " codes per insert, got " + codes.size());
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_CODES_PREFIX.length() + codes.size() * (INSERT_CODES_ROW.length() + 1))
+                .append(INSERT_CODES_PREFIX);
+        List<Object> args = new ArrayList<>(codes.size() * PARAMETERS_PER_ROW);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < codes.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(INSERT_CODES_ROW);
+
+            args.add(codes.get(i));
+            args.add(campaign);
+            args.add(template.getName());
+            args.add(template.getDescription());
+            args.add(template.getType().name());
+            args.add(template.getPercentageValue());
+            args.add(template.getFixedAmount());
+            args.add(template.getValidFrom());
+            args.add(template.getValidUntil());
+            args.add(template.getMinOrderAmount());
+            args.add(template.getMaxDiscountAmount());
+            args.add(template.getMinLeadDays());
+            args.add(template.getMaxLeadDays());
+            args.add(template.getStayFrom());
+            args.add(template.getStayUntil());
+            args.add(template.getMinNights());
+            args.add(template.getMinUserBookings());
+            args.add(template.getIsActive());
+            args.add(template.getTermsAndConditions());
+            args.add(now);
+            args.add(now);
+        }
+
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Stream the codes of all discounts with an id above the given one, in id order
+     * @return the highest id seen, or afterId if there were none
+     */
+    public long forEachCodeAfter(long afterId, Consumer<String> consumer) {
+        long[] maxId = {afterId};
+        jdbcTemplate.query(streaming(SELECT_CODES_AFTER_SQL, afterId), (RowCallbackHandler) rs -> {
+            maxId[0] = rs.getLong(1);
+            consumer.accept(rs.getString(2));
+        });
+        return maxId[0];
+    }
+
+    /**
+     * Stream the codes of all discounts created at or after the given time
+     */
+    public void forEachCodeCreatedSince(LocalDateTime since, Consumer<String> consumer) {
+        jdbcTemplate.query(streaming(SELECT_CODES_CREATED_SINCE_SQL, Timestamp.valueOf(since)),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+
+    /**
+     * Stream the codes generated for a campaign
+     */
+    public void forEachCampaignCode(String campaign, Consumer<String> consumer) {
+        jdbcTemplate.query(streaming(SELECT_CAMPAIGN_CODES_SQL, campaign), (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+
+    public long countCodes() {
+        Long count = jdbcTemplate.queryForObject(COUNT_CODES_SQL, Long.class);
+        return count != null ? count : 0;
+    }
+
+    // Forward-only statement with MySQL's row-by-row streaming fetch size, so large results are not buffered in memory
+    private static PreparedStatementCreator streaming(String sql, Object parameter) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setObject(1, parameter);
+            return statement;
+        };
+    }
+}
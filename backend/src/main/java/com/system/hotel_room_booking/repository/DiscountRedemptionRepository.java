@@ -0,0 +1,65 @@
+package com.system.hotel_room_booking.repository;
+
+import com.system.hotel_room_booking.model.entity.DiscountRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DiscountRedemptionRepository extends JpaRepository<DiscountRedemption, Long> {
+
+    Optional<DiscountRedemption> findByDiscountIdAndUserId(Long discountId, Long userId);
+
+    /**
+     * How often a user redeemed a discount
+     */
+    interface UserRedemptionCount {
+        Long getDiscountId();
+
+        Integer getRedemptionCount();
+    }
+
+    /**
+     * The user's redemption counts for the given discounts; discounts never redeemed have no row
+     */
+    @Query("SELECT r.discount.id AS discountId, r.redemptionCount AS redemptionCount FROM DiscountRedemption r " +
+           "WHERE r.user.id = :userId AND r.discount.id IN :discountIds")
+    List<UserRedemptionCount> findRedemptionCounts(@Param("userId") Long userId,
+                                                   @Param("discountIds") Collection<Long> discountIds);
+
+    /**
+     * Create the user's counter row if it does not exist yet
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO discount_redemptions (discount_id, user_id, redemption_count, created_at, updated_at) " +
+                   "VALUES (:discountId, :userId, 0, :now, :now)", nativeQuery = true)
+    void insertIfAbsent(@Param("discountId") Long discountId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Increment the user's counter only while it is below the per-user limit
+     * @return 1 if redeemed, 0 if the limit is reached
+     */
+    @Modifying
+    @Query(value = "UPDATE discount_redemptions SET redemption_count = redemption_count + 1, updated_at = :now " +
+                   "WHERE discount_id = :discountId AND user_id = :userId " +
+                   "AND (:maxPerUser IS NULL OR redemption_count < :maxPerUser)", nativeQuery = true)
+    int incrementIfBelow(@Param("discountId") Long discountId, @Param("userId") Long userId,
+                         @Param("maxPerUser") Integer maxPerUser, @Param("now") LocalDateTime now);
+
+    /**
+     * Decrement the user's counter, never below zero
+     * @return 1 if released, 0 if there was nothing to release
+     */
+    @Modifying
+    @Query(value = "UPDATE discount_redemptions SET redemption_count = redemption_count - 1, updated_at = :now " +
+                   "WHERE discount_id = :discountId AND user_id = :userId AND redemption_count > 0", nativeQuery = true)
+    int decrementIfPositive(@Param("discountId") Long discountId, @Param("userId") Long userId,
+                            @Param("now") LocalDateTime now);
+}
@@ -3,6 +3,7 @@ package com.system.hotel_room_booking.repository;
 import com.system.hotel_room_booking.model.entity.Discount;
 import com.system.hotel_room_booking.model.entity.DiscountType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,14 +21,37 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
     
     List<Discount> findByIsActiveTrue();
     
+    /**
+     * Regular discounts, without bulk-generated campaign codes
+     */
+    List<Discount> findByCampaignIsNull();
+    
     @Query("SELECT d FROM Discount d WHERE d.code = :code AND d.isActive = true " +
            "AND (d.validFrom IS NULL OR d.validFrom <= :now) " +
            "AND (d.validUntil IS NULL OR d.validUntil >= :now) " +
            "AND (d.maxUsageCount IS NULL OR d.currentUsageCount < d.maxUsageCount)")
     Optional<Discount> findValidDiscountByCode(@Param("code") String code, @Param("now") LocalDateTime now);
     
-    @Query("SELECT d FROM Discount d WHERE d.isActive = true " +
+    @Query("SELECT d FROM Discount d WHERE d.isActive = true AND d.campaign IS NULL " +
            "AND (d.validFrom IS NULL OR d.validFrom <= :now) " +
            "AND (d.validUntil IS NULL OR d.validUntil >= :now)")
     List<Discount> findActiveDiscounts(@Param("now") LocalDateTime now);
+    
+    /**
+     * Atomically take one use of the discount if any uses remain
+     * @return 1 if reserved, 0 if the discount is used up
+     */
+    @Modifying
+    @Query("UPDATE Discount d SET d.currentUsageCount = d.currentUsageCount + 1 " +
+           "WHERE d.id = :id AND (d.maxUsageCount IS NULL OR d.currentUsageCount < d.maxUsageCount)")
+    int reserveUsage(@Param("id") Long id);
+
+    /**
+     * Give back a reserved use, never below zero
+     * @return 1 if released, 0 if there was nothing to release
+     */
+    @Modifying
+    @Query("UPDATE Discount d SET d.currentUsageCount = d.currentUsageCount - 1 " +
+           "WHERE d.id = :id AND d.currentUsageCount > 0")
+    int releaseUsage(@Param("id") Long id);
 }
@@ -0,0 +1,60 @@
+package com.system.hotel_room_booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched JDBC writes of login bookkeeping buffered by LoginActivityBuffer
+ * One JDBC batch per kind of change, however many logins happened since the last flush
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoginActivityBatchRepository {
+
+    private static final String UPDATE_SUCCESS_SQL =
+            "UPDATE users SET last_login_at = ?, last_login_ip = ?, failed_login_attempts = 0 WHERE id = ?";
+
+    // updated_at is left alone: a lockout only blocks password logins and must not reach token state
+    private static final String UPDATE_FAILURE_SQL =
+            "UPDATE users SET failed_login_attempts = ?, locked_until = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record LoginSuccess(LocalDateTime at, String ip) {
+    }
+
+    public record LoginFailure(int attempts, LocalDateTime lockedUntil) {
+    }
+
+    public void updateSuccesses(Map<Long, LoginSuccess> successes) {
+        if (successes.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = successes.entrySet().stream()
+                .map(entry -> new Object[] {
+                        Timestamp.valueOf(entry.getValue().at()),
+                        entry.getValue().ip(),
+                        entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_SUCCESS_SQL, args);
+    }
+
+    public void updateFailures(Map<Long, LoginFailure> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = failures.entrySet().stream()
+                .map(entry -> new Object[] {
+                        entry.getValue().attempts(),
+                        entry.getValue().lockedUntil() != null ? Timestamp.valueOf(entry.getValue().lockedUntil()) : null,
+                        entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_FAILURE_SQL, args);
+    }
+}
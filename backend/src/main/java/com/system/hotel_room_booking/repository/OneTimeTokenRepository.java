@@ -0,0 +1,31 @@
+package com.system.hotel_room_booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.system.hotel_room_booking.model.entity.OneTimeToken;
+import com.system.hotel_room_booking.model.entity.OneTimeTokenPurpose;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OneTimeTokenRepository extends JpaRepository<OneTimeToken, Long> {
+    
+    @Query("SELECT t FROM OneTimeToken t JOIN FETCH t.user WHERE t.tokenHash = ?1 AND t.purpose = ?2")
+    Optional<OneTimeToken> findByTokenHashAndPurpose(String tokenHash, OneTimeTokenPurpose purpose);
+    
+    @Modifying
+    @Query("DELETE FROM OneTimeToken t WHERE t.user.id = ?1 AND t.purpose = ?2")
+    void deleteByUserIdAndPurpose(Long userId, OneTimeTokenPurpose purpose);
+    
+    /**
+     * Delete up to limit expired tokens
+     * @return number of rows deleted; fewer than limit means nothing is left to purge
+     */
+    @Modifying
+    @Query(value = "DELETE FROM one_time_tokens WHERE expires_at < ?1 LIMIT ?2", nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
+}
@@ -2,12 +2,16 @@ package com.system.hotel_room_booking.repository;
 
 import com.system.hotel_room_booking.model.entity.Payment;
 import com.system.hotel_room_booking.model.entity.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,14 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     Optional<Payment> findByTransactionId(String transactionId);
 
+    /**
+     * Find payment by transaction ID and lock the row
+     * Serializes callback and reconciliation updates of the same payment
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.transactionId = :transactionId")
+    Optional<Payment> findByTransactionIdForUpdate(@Param("transactionId") String transactionId);
+
     /**
      * Find payment by PayWay transaction ID
      */
@@ -48,7 +60,8 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     /**
      * Find all payments for a booking
      */
-    @Query("SELECT p FROM Payment p WHERE p.booking.id = :bookingId ORDER BY p.createdAt DESC")
+    @Query("SELECT DISTINCT p FROM Payment p LEFT JOIN p.booking pb LEFT JOIN p.bookings b " +
+           "WHERE pb.id = :bookingId OR b.id = :bookingId ORDER BY p.createdAt DESC")
     List<Payment> findByBookingId(@Param("bookingId") Long bookingId);
 
     /**
@@ -62,6 +75,40 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.status = 'PENDING' AND p.createdAt < :expiryTime")
     List<Payment> findExpiredPendingPayments(@Param("expiryTime") LocalDateTime expiryTime);
 
+    /**
+     * Current status of a payment
+     */
+    interface TransactionStatus {
+        String getTransactionId();
+
+        PaymentStatus getStatus();
+    }
+
+    /**
+     * Current statuses of the given payments, without loading them
+     */
+    @Query("SELECT p.transactionId AS transactionId, p.status AS status FROM Payment p " +
+           "WHERE p.transactionId IN :transactionIds")
+    List<TransactionStatus> findStatuses(@Param("transactionIds") Collection<String> transactionIds);
+
+    /**
+     * Find transaction IDs of unsettled payments created between expiredBefore and the cutoff, newest first
+     */
+    @Query("SELECT p.transactionId FROM Payment p WHERE p.status IN :statuses " +
+           "AND p.createdAt >= :expiredBefore AND p.createdAt < :cutoff ORDER BY p.createdAt DESC")
+    List<String> findTransactionIdsForReconciliation(@Param("statuses") Collection<PaymentStatus> statuses,
+                                                     @Param("expiredBefore") LocalDateTime expiredBefore,
+                                                     @Param("cutoff") LocalDateTime cutoff,
+                                                     Pageable pageable);
+
+    /**
+     * Find unsettled payments created before the given time
+     */
+    @Query("SELECT p FROM Payment p WHERE p.status IN :statuses AND p.createdAt < :createdBefore")
+    List<Payment> findUnsettledCreatedBefore(@Param("statuses") Collection<PaymentStatus> statuses,
+                                             @Param("createdBefore") LocalDateTime createdBefore,
+                                             Pageable pageable);
+
     /**
      * Check if a transaction ID exists
      */
@@ -0,0 +1,95 @@
+package com.system.hotel_room_booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compare-and-set access to the shared rate limit buckets
+ * Each statement runs on its own, so no row lock is held between reading a bucket and updating it
+ * The SQL is plain ANSI with no vendor extensions, so it runs unchanged on MySQL and on an embedded test database
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitBucketRepository {
+
+    private static final String FIND_SQL =
+            "SELECT state, version FROM rate_limit_buckets WHERE bucket_key = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO rate_limit_buckets (bucket_key, state, version, updated_at) VALUES (?, ?, 0, ?)";
+
+    private static final String COMPARE_AND_SET_SQL =
+            "UPDATE rate_limit_buckets SET state = ?, version = version + 1, updated_at = ? " +
+            "WHERE bucket_key = ? AND version = ?";
+
+    private static final String FIND_IDLE_SQL =
+            "SELECT bucket_key FROM rate_limit_buckets WHERE updated_at < ?";
+
+    // Checks updated_at again so a bucket used since it was selected survives
+    private static final String DELETE_IDLE_SQL =
+            "DELETE FROM rate_limit_buckets WHERE bucket_key = ? AND updated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record BucketRow(String state, long version) {
+    }
+
+    public Optional<BucketRow> find(String key) {
+        List<BucketRow> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new BucketRow(rs.getString("state"), rs.getLong("version")),
+                key);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Create the bucket unless another node created it first
+     * @return true if this call created it
+     */
+    public boolean insertIfAbsent(String key, String state, LocalDateTime now) {
+        try {
+            return jdbcTemplate.update(INSERT_SQL, key, state, Timestamp.valueOf(now)) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write the bucket only if nobody changed it since it was read at the given version
+     * @return true if written
+     */
+    public boolean compareAndSet(String key, long version, String state, LocalDateTime now) {
+        return jdbcTemplate.update(COMPARE_AND_SET_SQL, state, Timestamp.valueOf(now), key, version) == 1;
+    }
+
+    /**
+     * Delete up to limit buckets not used since the given time
+     * The chunk is bounded with the driver's max rows rather than a vendor-specific LIMIT clause
+     * @return number of idle buckets found; fewer than limit means nothing is left to purge
+     */
+    public int deleteIdle(LocalDateTime before, int limit) {
+        Timestamp cutoff = Timestamp.valueOf(before);
+        List<String> keys = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_IDLE_SQL);
+            statement.setTimestamp(1, cutoff);
+            statement.setMaxRows(limit);
+            return statement;
+        }, (rs, rowNum) -> rs.getString("bucket_key"));
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(DELETE_IDLE_SQL, keys, keys.size(), (statement, key) -> {
+            statement.setString(1, key);
+            statement.setTimestamp(2, cutoff);
+        });
+        return keys.size();
+    }
+}
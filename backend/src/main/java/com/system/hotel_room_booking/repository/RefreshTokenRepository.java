@@ -1,6 +1,8 @@
 package com.system.hotel_room_booking.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,7 +17,14 @@ import java.util.Optional;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * Lock the token row so concurrent refreshes with the same token are serialized
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = ?1")
+    Optional<RefreshToken> findByTokenHashForUpdate(String tokenHash);
     
     List<RefreshToken> findByUser(User user);
     
@@ -24,11 +33,22 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     void deleteByUserId(Long userId);
     
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < ?1")
-    void deleteExpiredTokens(LocalDateTime now);
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = ?2 WHERE rt.tokenHash = ?1 AND rt.revokedAt IS NULL")
+    void revokeByTokenHash(String tokenHash, LocalDateTime revokedAt);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = ?2 WHERE rt.familyId = ?1 AND rt.revokedAt IS NULL")
+    int revokeFamily(String familyId, LocalDateTime revokedAt);
     
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revokedAt = ?2 WHERE rt.token = ?1")
-    void revokeToken(String token, LocalDateTime revokedAt);
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = ?2 WHERE rt.user.id = ?1 AND rt.revokedAt IS NULL")
+    void revokeAllByUserId(Long userId, LocalDateTime revokedAt);
+    
+    /**
+     * Delete up to limit rows that expired, or were revoked before the given time
+     * @return number of rows deleted; fewer than limit means nothing is left to purge
+     */
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < ?1 OR revoked_at < ?2 LIMIT ?3", nativeQuery = true)
+    int deletePurgeable(LocalDateTime now, LocalDateTime revokedBefore, int limit);
 }
-
@@ -1,11 +1,16 @@
 package com.system.hotel_room_booking.repository;
 
 import com.system.hotel_room_booking.model.entity.Review;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,18 +19,85 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     Optional<Review> findByBookingId(Long bookingId);
     
+    /**
+     * Load a review with a row lock, so changes to its published state are counted exactly once
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.id = :id")
+    Optional<Review> findByIdForUpdate(@Param("id") Long id);
+    
     List<Review> findByUserId(Long userId);
     
     List<Review> findByRoomId(Long roomId);
     
     List<Review> findByRoomIdAndIsPublishedTrue(Long roomId);
     
-    @Query("SELECT r FROM Review r WHERE r.room.id = :roomId AND r.isPublished = true ORDER BY r.createdAt DESC")
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.room " +
+           "WHERE r.room.id = :roomId AND r.isPublished = true ORDER BY r.createdAt DESC")
     List<Review> findPublishedReviewsByRoomId(@Param("roomId") Long roomId);
     
+    /**
+     * Feed page by recency, after the (createdAt, id) cursor
+     * Served by idx_review_room_published_created
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.room " +
+           "WHERE r.room.id = :roomId AND r.isPublished = true " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFeedByRecency(@Param("roomId") Long roomId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+    
+    /**
+     * Feed page by overall rating, after the (overallRating, createdAt, id) cursor
+     * Served by idx_review_room_published_rating
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.room " +
+           "WHERE r.room.id = :roomId AND r.isPublished = true " +
+           "AND (r.overallRating < :rating OR (r.overallRating = :rating " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)))) " +
+           "ORDER BY r.overallRating DESC, r.createdAt DESC, r.id DESC")
+    List<Review> findFeedByRating(@Param("roomId") Long roomId,
+                                  @Param("rating") Integer rating,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+    
+    /**
+     * Feed page of answered reviews by response time, after the (respondedAt, id) cursor
+     * Served by idx_review_room_published_responded
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.room " +
+           "WHERE r.room.id = :roomId AND r.isPublished = true AND r.respondedAt IS NOT NULL " +
+           "AND (r.respondedAt < :respondedAt OR (r.respondedAt = :respondedAt AND r.id < :id)) " +
+           "ORDER BY r.respondedAt DESC, r.id DESC")
+    List<Review> findFeedWithResponse(@Param("roomId") Long roomId,
+                                      @Param("respondedAt") LocalDateTime respondedAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    
     @Query("SELECT AVG(r.overallRating) FROM Review r WHERE r.room.id = :roomId AND r.isPublished = true")
     Double getAverageRatingForRoom(@Param("roomId") Long roomId);
     
+    /**
+     * Published reviews by id with their user and room, for search results
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.room WHERE r.id IN :ids AND r.isPublished = true")
+    List<Review> findPublishedByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * id, room id and comment of every published review with a comment, for building the search index
+     */
+    @Query("SELECT r.id, r.room.id, r.comment FROM Review r WHERE r.isPublished = true AND r.comment IS NOT NULL")
+    List<Object[]> findSearchableReviews();
+    
+    /**
+     * id, room id, comment and published flag of reviews changed since the given time, for updating the search index
+     */
+    @Query("SELECT r.id, r.room.id, r.comment, r.isPublished FROM Review r WHERE r.updatedAt >= :since")
+    List<Object[]> findReviewsUpdatedSince(@Param("since") LocalDateTime since);
+    
     @Query("SELECT r FROM Review r WHERE r.overallRating >= :minRating AND r.isPublished = true")
     List<Review> findByMinimumRating(@Param("minRating") Integer minRating);
     
@@ -0,0 +1,72 @@
+package com.system.hotel_room_booking.repository;
+
+import com.system.hotel_room_booking.model.entity.RoomRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RoomRatingSummaryRepository extends JpaRepository<RoomRatingSummary, Long> {
+
+    /**
+     * Add (delta = 1) or remove (delta = -1) one review's ratings from the room's totals
+     * A single upsert, so concurrent reviews of the same room never lose an update
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_rating_summary (room_id, review_count, overall_sum, cleanliness_sum, comfort_sum, " +
+                   "service_sum, value_for_money_sum, location_sum, rating_1_count, rating_2_count, rating_3_count, " +
+                   "rating_4_count, rating_5_count, updated_at) " +
+                   "VALUES (:roomId, :delta, :delta * :overall, :delta * :cleanliness, :delta * :comfort, " +
+                   ":delta * :service, :delta * :valueForMoney, :delta * :location, " +
+                   "IF(:overall = 1, :delta, 0), IF(:overall = 2, :delta, 0), IF(:overall = 3, :delta, 0), " +
+                   "IF(:overall = 4, :delta, 0), IF(:overall = 5, :delta, 0), :now) " +
+                   "ON DUPLICATE KEY UPDATE review_count = review_count + :delta, " +
+                   "overall_sum = overall_sum + :delta * :overall, " +
+                   "cleanliness_sum = cleanliness_sum + :delta * :cleanliness, " +
+                   "comfort_sum = comfort_sum + :delta * :comfort, " +
+                   "service_sum = service_sum + :delta * :service, " +
+                   "value_for_money_sum = value_for_money_sum + :delta * :valueForMoney, " +
+                   "location_sum = location_sum + :delta * :location, " +
+                   "rating_1_count = rating_1_count + IF(:overall = 1, :delta, 0), " +
+                   "rating_2_count = rating_2_count + IF(:overall = 2, :delta, 0), " +
+                   "rating_3_count = rating_3_count + IF(:overall = 3, :delta, 0), " +
+                   "rating_4_count = rating_4_count + IF(:overall = 4, :delta, 0), " +
+                   "rating_5_count = rating_5_count + IF(:overall = 5, :delta, 0), " +
+                   "updated_at = :now", nativeQuery = true)
+    void applyDelta(@Param("roomId") Long roomId,
+                    @Param("delta") int delta,
+                    @Param("overall") int overall,
+                    @Param("cleanliness") int cleanliness,
+                    @Param("comfort") int comfort,
+                    @Param("service") int service,
+                    @Param("valueForMoney") int valueForMoney,
+                    @Param("location") int location,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Compute every room's totals from the published reviews, overwriting existing rows
+     * Used to backfill the table for reviews written before it existed
+     * @return affected rows as MySQL reports them: 1 per inserted summary, 2 per overwritten one
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_rating_summary (room_id, review_count, overall_sum, cleanliness_sum, comfort_sum, " +
+                   "service_sum, value_for_money_sum, location_sum, rating_1_count, rating_2_count, rating_3_count, " +
+                   "rating_4_count, rating_5_count, updated_at) " +
+                   "SELECT r.room_id, COUNT(*), SUM(r.overall_rating), SUM(r.cleanliness_rating), SUM(r.comfort_rating), " +
+                   "SUM(r.service_rating), SUM(r.value_for_money_rating), SUM(r.location_rating), " +
+                   "SUM(r.overall_rating = 1), SUM(r.overall_rating = 2), SUM(r.overall_rating = 3), " +
+                   "SUM(r.overall_rating = 4), SUM(r.overall_rating = 5), :now " +
+                   "FROM reviews r WHERE r.is_published = true GROUP BY r.room_id " +
+                   "ON DUPLICATE KEY UPDATE review_count = VALUES(review_count), overall_sum = VALUES(overall_sum), " +
+                   "cleanliness_sum = VALUES(cleanliness_sum), comfort_sum = VALUES(comfort_sum), " +
+                   "service_sum = VALUES(service_sum), value_for_money_sum = VALUES(value_for_money_sum), " +
+                   "location_sum = VALUES(location_sum), rating_1_count = VALUES(rating_1_count), " +
+                   "rating_2_count = VALUES(rating_2_count), rating_3_count = VALUES(rating_3_count), " +
+                   "rating_4_count = VALUES(rating_4_count), rating_5_count = VALUES(rating_5_count), " +
+                   "updated_at = VALUES(updated_at)", nativeQuery = true)
+    int rebuildAll(@Param("now") LocalDateTime now);
+}
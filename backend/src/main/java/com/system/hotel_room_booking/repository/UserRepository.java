@@ -6,8 +6,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.security.UserTokenState;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,24 +19,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
-    Optional<User> findByApiKey(String apiKey);
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username = ?1 OR u.email = ?1")
+    List<User> findLoginCandidates(String usernameOrEmail);
     
-    Optional<User> findByEmailVerificationToken(String token);
-    
-    Optional<User> findByEmailChangeToken(String token);
-    
-    Optional<User> findByPasswordResetToken(String token);
+    /**
+     * User and roles by the SHA-256 of their API key
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.apiKey = ?1")
+    Optional<User> findByApiKey(String apiKeyHash);
     
     Boolean existsByUsername(String username);
     
     Boolean existsByEmail(String email);
     
     @Modifying
-    @Query("UPDATE User u SET u.failedLoginAttempts = ?2, u.lockedUntil = ?3 WHERE u.id = ?1")
-    void updateFailedAttempts(Long userId, Integer attempts, LocalDateTime lockedUntil);
+    @Query("UPDATE User u SET u.password = ?2 WHERE u.username = ?1")
+    void updatePassword(String username, String encodedPassword);
+    
+    @Query("SELECT new com.system.hotel_room_booking.security.UserTokenState(u.id, u.tokenVersion, u.enabled, u.accountNonLocked) " +
+           "FROM User u WHERE u.id = ?1")
+    Optional<UserTokenState> findTokenStateById(Long userId);
+    
+    @Query("SELECT new com.system.hotel_room_booking.security.UserTokenState(u.id, u.tokenVersion, u.enabled, u.accountNonLocked) " +
+           "FROM User u WHERE u.updatedAt >= ?1")
+    List<UserTokenState> findTokenStatesUpdatedSince(LocalDateTime since);
     
     @Modifying
-    @Query("UPDATE User u SET u.lastLoginAt = ?2 WHERE u.id = ?1")
-    void updateLastLogin(Long userId, LocalDateTime lastLoginAt);
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = ?2 WHERE u.id = ?1")
+    void incrementTokenVersion(Long userId, LocalDateTime now);
 }
-
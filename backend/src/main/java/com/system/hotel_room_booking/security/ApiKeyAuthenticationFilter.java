@@ -0,0 +1,97 @@
+package com.system.hotel_room_booking.security;
+
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.system.hotel_room_booking.common.RateLimitExceededException;
+import com.system.hotel_room_booking.util.TokenHashUtil;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates partner integrations by the X-API-Key header
+ * A known key costs no database query and no password check; every key is held to its own quota
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+    
+    public static final String API_KEY_HEADER = "X-API-Key";
+    
+    private final ApiKeyRegistry apiKeyRegistry;
+    
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        
+        if (StringUtils.hasText(apiKey)) {
+            String keyHash = TokenHashUtil.sha256(apiKey);
+            Optional<JwtUserPrincipal> principal;
+            try {
+                principal = apiKeyRegistry.resolve(keyHash, getClientIp(request));
+            } catch (RateLimitExceededException e) {
+                log.warn("Too many unknown API keys from IP: {}", getClientIp(request));
+                writeTooManyRequests(response, 60, e.getMessage(), e.getLimit());
+                return;
+            }
+            
+            if (principal.isPresent()) {
+                ConsumptionProbe probe = apiKeyRegistry.consume(keyHash);
+                if (!probe.isConsumed()) {
+                    log.warn("API key quota exceeded for user {}", principal.get().id());
+                    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()));
+                    writeTooManyRequests(response, retryAfterSeconds, "API key quota exceeded. Please try again later.",
+                        apiKeyRegistry.getQuotaPerMinute());
+                    return;
+                }
+                response.addHeader("X-Rate-Limit-Limit", String.valueOf(apiKeyRegistry.getQuotaPerMinute()));
+                response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+                
+                UsernamePasswordAuthenticationToken authentication = 
+                    new UsernamePasswordAuthenticationToken(principal.get(), null, principal.get().authorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } else {
+                log.debug("Rejected unknown, expired or inactive API key");
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private void writeTooManyRequests(HttpServletResponse response, long retryAfterSeconds, String message, long limit)
+            throws IOException {
+        response.setStatus(429); // Too Many Requests
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write(
+            String.format("{\"error\":\"Too Many Requests\",\"message\":\"%s\",\"limit\":%d,\"duration\":60}",
+                message, limit)
+        );
+    }
+    
+    private String getClientIp(HttpServletRequest request) {
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if (xfHeader == null || xfHeader.isEmpty()) {
+            return request.getRemoteAddr();
+        }
+        return xfHeader.split(",")[0].trim();
+    }
+}
@@ -0,0 +1,161 @@
+package com.system.hotel_room_booking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.system.hotel_room_booking.common.RateLimitExceededException;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.UserRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resolves API keys to principals through a bounded in-memory cache keyed by the key's SHA-256
+ * Unknown keys are remembered in a separate, smaller cache so a flood of guesses cannot evict real keys,
+ * and each client address may only cause a few database lookups per minute
+ * Each key also gets its own request quota
+ */
+@Component
+public class ApiKeyRegistry {
+
+    private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+    private final Cache<String, ResolvedKey> keys;
+    private final Cache<String, Boolean> unknownKeys;
+    private final Cache<String, Bucket> lookupBudgets;
+    private final Cache<String, Bucket> quotas;
+    private final long quotaPerMinute;
+    private final long lookupsPerMinute;
+
+    /**
+     * A known key: who it authenticates and until when
+     */
+    private record ResolvedKey(JwtUserPrincipal principal, LocalDateTime expiresAt) {
+    }
+
+    public ApiKeyRegistry(UserRepository userRepository,
+                          TokenVersionService tokenVersionService,
+                          @Value("${api-key.cache-ttl-ms:60000}") long cacheTtlMs,
+                          @Value("${api-key.negative-cache-ttl-ms:10000}") long negativeCacheTtlMs,
+                          @Value("${api-key.cache-size:10000}") long cacheSize,
+                          @Value("${api-key.negative-cache-size:1000}") long negativeCacheSize,
+                          @Value("${api-key.quota-per-minute:600}") long quotaPerMinute,
+                          @Value("${api-key.lookups-per-ip-per-minute:30}") long lookupsPerMinute) {
+        this.userRepository = userRepository;
+        this.tokenVersionService = tokenVersionService;
+        this.quotaPerMinute = quotaPerMinute;
+        this.lookupsPerMinute = lookupsPerMinute;
+
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+        this.unknownKeys = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(Duration.ofMillis(negativeCacheTtlMs))
+                .build();
+        this.lookupBudgets = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.quotas = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    /**
+     * Principal for a valid, unexpired key whose user is enabled and not locked
+     *
+     * @throws RateLimitExceededException if the key is not cached and the client has used up its lookups
+     */
+    public Optional<JwtUserPrincipal> resolve(String keyHash, String clientIp) {
+        ResolvedKey resolved = keys.getIfPresent(keyHash);
+        if (resolved == null) {
+            if (unknownKeys.getIfPresent(keyHash) != null) {
+                return Optional.empty();
+            }
+            if (!lookupBudget(clientIp).tryConsume(1)) {
+                throw new RateLimitExceededException((int) lookupsPerMinute, 60);
+            }
+            resolved = userRepository.findByApiKey(keyHash).map(this::toResolvedKey).orElse(null);
+            if (resolved == null) {
+                unknownKeys.put(keyHash, Boolean.TRUE);
+                return Optional.empty();
+            }
+            keys.put(keyHash, resolved);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return Optional.of(resolved)
+                .filter(key -> key.expiresAt() == null || key.expiresAt().isAfter(now))
+                .filter(key -> tokenVersionService.isActive(key.principal().id()))
+                .map(ResolvedKey::principal);
+    }
+
+    /**
+     * Take one request from the key's per-minute quota
+     */
+    public ConsumptionProbe consume(String keyHash) {
+        return quotas.get(keyHash, hash -> Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(quotaPerMinute)
+                        .refillGreedy(quotaPerMinute, Duration.ofMinutes(1))
+                        .build())
+                .build())
+                .tryConsumeAndReturnRemaining(1);
+    }
+
+    public long getQuotaPerMinute() {
+        return quotaPerMinute;
+    }
+
+    /**
+     * Forget a key once the current transaction commits, after it is replaced or revoked
+     * Other instances drop it when their cache entry expires
+     */
+    public void evictAfterCommit(String keyHash) {
+        if (keyHash == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.invalidate(keyHash);
+                    unknownKeys.invalidate(keyHash);
+                }
+            });
+        } else {
+            keys.invalidate(keyHash);
+            unknownKeys.invalidate(keyHash);
+        }
+    }
+
+    private Bucket lookupBudget(String clientIp) {
+        return lookupBudgets.get(clientIp, ip -> Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(lookupsPerMinute)
+                        .refillGreedy(lookupsPerMinute, Duration.ofMinutes(1))
+                        .build())
+                .build());
+    }
+
+    private ResolvedKey toResolvedKey(User user) {
+        List<GrantedAuthority> authorities = user.getRoles().stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.getName().name()))
+                .toList();
+        return new ResolvedKey(new JwtUserPrincipal(user.getId(), user.getUsername(), authorities), user.getApiKeyExpiresAt());
+    }
+}
@@ -0,0 +1,134 @@
+package com.system.hotel_room_booking.security;
+
+import com.system.hotel_room_booking.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a CPU-heavy PasswordEncoder on a small dedicated pool instead of the request thread
+ * At most one hash per worker runs at a time and only a bounded number wait; anything beyond that
+ * fails fast with ServiceBusyException (503), so a login storm cannot take every core and request thread
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Map<Operation, Map<Outcome, Timer>> timers = new EnumMap<>(Operation.class);
+    private final long timeoutMs;
+
+    private enum Operation {
+        ENCODE, MATCHES
+    }
+
+    private enum Outcome {
+        SUCCESS, REJECTED, TIMEOUT, ERROR
+    }
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int workers, int queueCapacity, long timeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue.depth", queue, BlockingQueue::size)
+            .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+
+        for (Operation operation : Operation.values()) {
+            Map<Outcome, Timer> byOutcome = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                // Includes time spent queued, which is what the caller waits for
+                byOutcome.put(outcome, Timer.builder("password.hashing.operations")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            }
+            timers.put(operation, byOutcome);
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(Operation.ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(Operation.MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Cheap check on the hash prefix, run inline: true when the hash uses a weaker cost than configured
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Called by Spring on context close (inferred destroy method)
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Operation operation, Callable<T> task) {
+        long submittedNanos = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            record(operation, Outcome.REJECTED, 0);
+            throw new ServiceBusyException("Too many password operations in progress, please retry shortly");
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            record(operation, Outcome.SUCCESS, System.nanoTime() - submittedNanos);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            record(operation, Outcome.TIMEOUT, System.nanoTime() - submittedNanos);
+            throw new ServiceBusyException("Password operation timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password operation interrupted");
+        } catch (ExecutionException e) {
+            record(operation, Outcome.ERROR, System.nanoTime() - submittedNanos);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password operation failed", e.getCause());
+        }
+    }
+
+    private void record(Operation operation, Outcome outcome, long elapsedNanos) {
+        timers.get(operation).get(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,13 +1,17 @@
 package com.system.hotel_room_booking.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -18,6 +22,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.system.hotel_room_booking.util.CookieUtil;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -26,24 +33,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    
+    @Value("${jwt.stateless-auth:true}")
+    private boolean statelessAuth;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, 
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            // Already authenticated by API key
+            String jwt = SecurityContextHolder.getContext().getAuthentication() == null ? getJwtFromRequest(request) : null;
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt).orElse(null) : null;
+            
+            if (claims != null) {
+                UsernamePasswordAuthenticationToken authentication = statelessAuth && isSelfContained(claims)
+                    ? authenticateFromClaims(claims)
+                    : authenticateFromUser(claims.getSubject());
                 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (authentication != null) {
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -52,6 +65,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private boolean isSelfContained(Claims claims) {
+        return claims.get(JwtTokenProvider.CLAIM_USER_ID) != null
+            && claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION) != null;
+    }
+    
+    /**
+     * Principal built from the verified claims; only the cached token version and account state are checked
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        Long tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Long.class);
+        
+        if (!tokenVersionService.isCurrent(userId, tokenVersion)) {
+            log.debug("Rejected outdated access token for user {}", userId);
+            return null;
+        }
+        
+        List<GrantedAuthority> authorities = parseAuthorities(claims.get(JwtTokenProvider.CLAIM_ROLES, String.class));
+        JwtUserPrincipal principal = new JwtUserPrincipal(userId, claims.getSubject(), authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+    
+    /**
+     * Full user load, for tokens issued before the uid and ver claims existed or when stateless auth is off
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromUser(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+    
+    private List<GrantedAuthority> parseAuthorities(String roles) {
+        if (!StringUtils.hasText(roles)) {
+            return List.of();
+        }
+        return Arrays.stream(roles.split(","))
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toUnmodifiableList());
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         // Priority 1: Try to get token from cookie (HttpOnly secure method)
         String jwtFromCookie = CookieUtil.getCookie(request, CookieUtil.ACCESS_TOKEN_COOKIE)
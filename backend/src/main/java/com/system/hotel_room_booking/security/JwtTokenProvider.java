@@ -1,22 +1,33 @@
 package com.system.hotel_room_booking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.util.TokenHashUtil;
+
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
     
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
@@ -26,55 +37,64 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long jwtRefreshExpirationMs;
     
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // Thread-safe and immutable once built
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        // Each entry lives until its token expires, so a hit never returns an expired token's claims
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
     
-    public String generateAccessToken(Authentication authentication) {
-        Object principal = authentication.getPrincipal();
-        String username;
-        String roles;
-        
-        // Handle both UserPrincipal (OAuth2) and User (regular login)
-        if (principal instanceof UserPrincipal) {
-            UserPrincipal userPrincipal = (UserPrincipal) principal;
-            username = userPrincipal.getEmail(); // Use email as username for OAuth2
-            roles = userPrincipal.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .collect(Collectors.joining(","));
-        } else if (principal instanceof org.springframework.security.core.userdetails.User) {
-            org.springframework.security.core.userdetails.User userPrincipal = 
-                (org.springframework.security.core.userdetails.User) principal;
-            username = userPrincipal.getUsername();
-            roles = userPrincipal.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .collect(Collectors.joining(","));
-        } else {
-            // Fallback: use authentication name
-            username = authentication.getName();
-            roles = authentication.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .collect(Collectors.joining(","));
-        }
+    /**
+     * Access token carrying everything JwtAuthenticationFilter needs to authenticate a request
+     * without loading the user: username as subject, user id, roles and token version
+     */
+    public String generateAccessToken(User user) {
+        String roles = user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .collect(Collectors.joining(","));
         
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
         
         return Jwts.builder()
-                .setSubject(username)
-                .claim("roles", roles)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
-    }
-    
-    public String generateRefreshToken(String username) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtRefreshExpirationMs);
-        
-        return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
@@ -82,22 +102,34 @@ public class JwtTokenProvider {
     }
     
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
     
     public boolean validateToken(String authToken) {
+        return verify(authToken).isPresent();
+    }
+    
+    /**
+     * Verify the token once and return its claims, empty if it is invalid or expired
+     * Recently verified tokens are answered from a cache keyed by the token's digest, skipping the
+     * signature check and JSON parsing; the returned claims are shared and must not be modified
+     */
+    public Optional<Claims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String digest = TokenHashUtil.sha256(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return Optional.of(cached);
+        }
+        
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims);
+            }
+            return Optional.of(claims);
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -108,8 +140,10 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            log.error("Invalid JWT: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
     
     public long getJwtExpirationMs() {
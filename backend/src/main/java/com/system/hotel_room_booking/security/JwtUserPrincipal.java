@@ -0,0 +1,19 @@
+package com.system.hotel_room_booking.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Principal rebuilt from a verified access token or a cached API key, without loading the user
+ * getName() is the username, as with the UserDetails loaded by CustomUserDetailsService
+ */
+public record JwtUserPrincipal(Long id, String username, Collection<? extends GrantedAuthority> authorities)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,96 @@
+package com.system.hotel_room_booking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+
+/**
+ * Failed login attempts per account in a sliding window, kept in memory
+ * Too many failures inside the window lock the account for a while; the lock is also
+ * written to the users table by LoginActivityBuffer so other instances and restarts honour it
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private final int maxAttempts;
+    private final long windowMs;
+    private final long lockMs;
+    private final Cache<Long, Window> windows;
+
+    public LoginAttemptTracker(@Value("${auth.lockout.max-attempts:5}") int maxAttempts,
+                               @Value("${auth.lockout.window-ms:900000}") long windowMs,
+                               @Value("${auth.lockout.duration-ms:1800000}") long lockMs,
+                               @Value("${auth.lockout.max-tracked-accounts:100000}") long maxTracked) {
+        this.maxAttempts = maxAttempts;
+        this.windowMs = windowMs;
+        this.lockMs = lockMs;
+        // An account untouched for longer than both periods has nothing left to remember
+        this.windows = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(Math.max(windowMs, lockMs)))
+                .maximumSize(maxTracked)
+                .build();
+    }
+
+    /**
+     * Failures in the current window and the lock they caused, if any
+     */
+    public record Attempts(int failures, LocalDateTime lockedUntil) {
+    }
+
+    /**
+     * End of the account's in-memory lock, or null if it is not locked
+     */
+    public LocalDateTime lockedUntil(Long userId) {
+        Window window = windows.getIfPresent(userId);
+        if (window == null) {
+            return null;
+        }
+        long until = window.lockedUntil(System.currentTimeMillis());
+        return until > 0 ? toLocalDateTime(until) : null;
+    }
+
+    public Attempts recordFailure(Long userId) {
+        long now = System.currentTimeMillis();
+        Window window = windows.get(userId, id -> new Window());
+        return window.recordFailure(now);
+    }
+
+    public void reset(Long userId) {
+        windows.invalidate(userId);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private final class Window {
+
+        private final ArrayDeque<Long> failures = new ArrayDeque<>();
+        private long lockedUntil;
+
+        synchronized long lockedUntil(long now) {
+            return lockedUntil > now ? lockedUntil : 0;
+        }
+
+        synchronized Attempts recordFailure(long now) {
+            while (!failures.isEmpty() && failures.peekFirst() <= now - windowMs) {
+                failures.pollFirst();
+            }
+            failures.addLast(now);
+
+            if (failures.size() >= maxAttempts && lockedUntil <= now) {
+                lockedUntil = now + lockMs;
+                failures.clear();
+                return new Attempts(maxAttempts, toLocalDateTime(lockedUntil));
+            }
+            return new Attempts(failures.size(), lockedUntil > now ? toLocalDateTime(lockedUntil) : null);
+        }
+    }
+}
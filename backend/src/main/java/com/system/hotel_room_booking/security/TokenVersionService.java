@@ -0,0 +1,115 @@
+package com.system.hotel_room_booking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.system.hotel_room_booking.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * In-memory registry of per-user token versions (epochs) and account state
+ * A user's state is loaded once, on their first authenticated request, and then kept in sync by polling
+ * the users whose row changed since the last poll, so checking a token is a map lookup with no database hit
+ * Bumping the version rejects every access token issued before it: immediately on this instance,
+ * within one poll interval on the others
+ */
+@Service
+@Slf4j
+public class TokenVersionService {
+
+    // Re-read rows changed slightly before the last poll, covering transactions that committed late
+    // and clock skew between instances; applying the same state twice is harmless
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserTokenState> states;
+
+    private volatile LocalDateTime lastPolled = LocalDateTime.now();
+
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${jwt.token-state-idle-ms:3600000}") long idleMs,
+                               @Value("${jwt.token-state-cache-size:100000}") long cacheSize) {
+        this.userRepository = userRepository;
+        // Idle users are dropped to bound memory; they are simply loaded again on their next request
+        this.states = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Whether a token issued at the given version is still valid for the user:
+     * the version is current and the account is enabled and not locked by an administrator
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        UserTokenState state = states.get(userId, id -> userRepository.findTokenStateById(id).orElse(null));
+        return state != null && state.accepts(tokenVersion);
+    }
+
+    /**
+     * Whether the account is enabled and not locked by an administrator, for credentials that carry no token version (API keys)
+     */
+    public boolean isActive(Long userId) {
+        UserTokenState state = states.get(userId, id -> userRepository.findTokenStateById(id).orElse(null));
+        return state != null && state.isActive();
+    }
+
+    /**
+     * Invalidate every access token issued to the user so far (logout everywhere, password reset, role change)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId, LocalDateTime.now());
+        evictAfterCommit(userId);
+        log.info("Revoked all access tokens of user {}", userId);
+    }
+
+    /**
+     * Forget the user's state once the current transaction commits, after changing their token version,
+     * enabled or lock state; the next request reloads it
+     */
+    public void evictAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.invalidate(userId);
+                }
+            });
+        } else {
+            states.invalidate(userId);
+        }
+    }
+
+    /**
+     * Apply changes made on any instance since the last poll to the users held in memory
+     */
+    @Scheduled(fixedDelayString = "${jwt.token-state-poll-ms:5000}",
+               initialDelayString = "${jwt.token-state-poll-ms:5000}")
+    public void pollChanges() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        List<UserTokenState> changed = userRepository.findTokenStatesUpdatedSince(lastPolled.minus(POLL_OVERLAP));
+
+        int applied = 0;
+        for (UserTokenState state : changed) {
+            if (states.asMap().computeIfPresent(state.userId(), (id, current) -> state) != null) {
+                applied++;
+            }
+        }
+        lastPolled = pollStart;
+
+        if (applied > 0) {
+            log.debug("Applied token state changes of {} users", applied);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.system.hotel_room_booking.security;
+
+/**
+ * The few user columns that decide whether an access token is still usable
+ * A temporary brute-force lock (lockedUntil) is deliberately not one of them: it only blocks
+ * password logins, otherwise failing someone's password would sign them out everywhere
+ */
+public record UserTokenState(Long userId, Long tokenVersion, Boolean enabled, Boolean accountNonLocked) {
+
+    public boolean accepts(long version) {
+        return tokenVersion != null && tokenVersion == version && isActive();
+    }
+
+    /**
+     * Enabled and not locked by an administrator
+     */
+    public boolean isActive() {
+        return Boolean.TRUE.equals(enabled) && !Boolean.FALSE.equals(accountNonLocked);
+    }
+}
@@ -8,7 +8,11 @@ import org.springframework.security.web.authentication.SimpleUrlAuthenticationSu
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.UserRepository;
 import com.system.hotel_room_booking.security.JwtTokenProvider;
+import com.system.hotel_room_booking.security.UserPrincipal;
+import com.system.hotel_room_booking.service.RefreshTokenService;
 import com.system.hotel_room_booking.util.CookieUtil;
 
 import jakarta.servlet.ServletException;
@@ -26,6 +30,8 @@ import static com.system.hotel_room_booking.security.oauth2.HttpCookieOAuth2Auth
 public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
     private final JwtTokenProvider tokenProvider;
+    private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
     private final HttpCookieOAuth2AuthorizationRequestRepository httpCookieOAuth2AuthorizationRequestRepository;
 
     @Value("${app.frontend.url}")
@@ -55,9 +61,11 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         }
 
         // Generate tokens
-        String username = authentication.getName();
-        String accessToken = tokenProvider.generateAccessToken(authentication);
-        String refreshToken = tokenProvider.generateRefreshToken(username);
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new IllegalStateException("OAuth2 user not found: " + userPrincipal.getId()));
+        String accessToken = tokenProvider.generateAccessToken(user);
+        String refreshToken = refreshTokenService.issue(user, request);
 
         // Set tokens in HttpOnly cookies instead of URL parameters
         boolean isProduction = CookieUtil.isProduction();
@@ -3,19 +3,18 @@ package com.system.hotel_room_booking.service;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.system.hotel_room_booking.exception.InvalidRefreshTokenException;
 import com.system.hotel_room_booking.model.dto.AuthResponse;
 import com.system.hotel_room_booking.model.dto.LoginRequest;
 import com.system.hotel_room_booking.model.dto.SignupRequest;
 import com.system.hotel_room_booking.model.dto.UserResponse;
-import com.system.hotel_room_booking.model.entity.RefreshToken;
+import com.system.hotel_room_booking.model.entity.OneTimeToken;
+import com.system.hotel_room_booking.model.entity.OneTimeTokenPurpose;
 import com.system.hotel_room_booking.model.entity.Role;
 import com.system.hotel_room_booking.model.entity.RoleName;
 import com.system.hotel_room_booking.model.entity.User;
@@ -23,10 +22,12 @@ import com.system.hotel_room_booking.repository.RefreshTokenRepository;
 import com.system.hotel_room_booking.repository.RoleRepository;
 import com.system.hotel_room_booking.repository.UserRepository;
 import com.system.hotel_room_booking.security.JwtTokenProvider;
+import com.system.hotel_room_booking.security.LoginAttemptTracker;
+import com.system.hotel_room_booking.security.TokenVersionService;
 
-import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Base64;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -37,15 +38,19 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AuthService {
     
-    private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final EmailService emailService;
-    private static final int MAX_LOGIN_ATTEMPTS = 5;
-    private static final int LOCK_TIME_MINUTES = 30;
+    private final TokenVersionService tokenVersionService;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final LoginActivityBuffer loginActivityBuffer;
+    private final OneTimeTokenService oneTimeTokenService;
+    private static final Duration VERIFICATION_TOKEN_VALIDITY = Duration.ofHours(24);
+    private static final Duration PASSWORD_RESET_TOKEN_VALIDITY = Duration.ofHours(1);
     
     @Transactional
     public Map<String, String> signup(SignupRequest request) {
@@ -58,10 +63,6 @@ public class AuthService {
             throw new RuntimeException("Email is already registered");
         }
         
-        // Generate email verification token
-        String verificationToken = generateSecureToken();
-        LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24);
-        
         // Create new user (disabled until email verification)
         User user = User.builder()
             .username(request.getUsername())
@@ -73,8 +74,6 @@ public class AuthService {
             .enabled(false) // Account disabled until email verification
             .accountNonLocked(true)
             .failedLoginAttempts(0)
-            .emailVerificationToken(verificationToken)
-            .emailVerificationTokenExpiresAt(tokenExpiry)
             .build();
         
         // Assign default role
@@ -87,6 +86,9 @@ public class AuthService {
         
         User savedUser = userRepository.save(user);
         
+        // Generate email verification token
+        String verificationToken = oneTimeTokenService.issue(savedUser, OneTimeTokenPurpose.EMAIL_VERIFICATION, VERIFICATION_TOKEN_VALIDITY);
+        
         // Send verification email
         try {
             emailService.sendVerificationEmail(
@@ -109,18 +111,18 @@ public class AuthService {
     
     @Transactional
     public Map<String, String> verifyEmail(String token) {
-        User user = userRepository.findByEmailVerificationToken(token)
+        OneTimeToken verification = oneTimeTokenService.find(token, OneTimeTokenPurpose.EMAIL_VERIFICATION)
             .orElseThrow(() -> new RuntimeException("Invalid verification token"));
         
         // Check if token has expired
-        if (user.getEmailVerificationTokenExpiresAt().isBefore(LocalDateTime.now())) {
+        if (verification.getExpiresAt().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Verification token has expired. Please request a new one.");
         }
         
         // Activate user account
+        User user = verification.getUser();
         user.setEnabled(true);
-        user.setEmailVerificationToken(null);
-        user.setEmailVerificationTokenExpiresAt(null);
+        oneTimeTokenService.consume(verification);
         
         userRepository.save(user);
         
@@ -148,14 +150,8 @@ public class AuthService {
             throw new RuntimeException("Email is already verified");
         }
         
-        // Generate new verification token
-        String verificationToken = generateSecureToken();
-        LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24);
-        
-        user.setEmailVerificationToken(verificationToken);
-        user.setEmailVerificationTokenExpiresAt(tokenExpiry);
-        
-        userRepository.save(user);
+        // Generate new verification token, replacing the previous one
+        String verificationToken = oneTimeTokenService.issue(user, OneTimeTokenPurpose.EMAIL_VERIFICATION, VERIFICATION_TOKEN_VALIDITY);
         
         // Send verification email
         emailService.sendVerificationEmail(
@@ -172,18 +168,12 @@ public class AuthService {
         );
     }
     
-    private String generateSecureToken() {
-        SecureRandom random = new SecureRandom();
-        byte[] bytes = new byte[32];
-        random.nextBytes(bytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
-    }
-    
     @Transactional
     public AuthResponse login(LoginRequest request, HttpServletRequest httpRequest) {
-        // Find user
-        User user = userRepository.findByUsername(request.getUsernameOrEmail())
-            .or(() -> userRepository.findByEmail(request.getUsernameOrEmail()))
+        // Find user and roles in one query; a username match wins over an email match
+        String usernameOrEmail = request.getUsernameOrEmail();
+        User user = userRepository.findLoginCandidates(usernameOrEmail).stream()
+            .min(Comparator.comparing(candidate -> !candidate.getUsername().equals(usernameOrEmail)))
             .orElseThrow(() -> new RuntimeException("Invalid credentials"));
         
         // Check if email is verified
@@ -191,82 +181,52 @@ public class AuthService {
             throw new RuntimeException("Please verify your email before logging in. Check your inbox for the verification link.");
         }
         
-        // Check if account is locked
-        if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(LocalDateTime.now())) {
+        // Check if account is locked, here or on another instance
+        LocalDateTime now = LocalDateTime.now();
+        if ((user.getLockedUntil() != null && user.getLockedUntil().isAfter(now))
+                || loginAttemptTracker.lockedUntil(user.getId()) != null
+                || Boolean.FALSE.equals(user.getAccountNonLocked())) {
             throw new RuntimeException("Account is locked. Try again later.");
         }
         
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    user.getUsername(),
-                    request.getPassword()
-                )
-            );
-            
-            // Reset failed attempts on successful login
-            if (user.getFailedLoginAttempts() > 0) {
-                userRepository.updateFailedAttempts(user.getId(), 0, null);
-            }
-            
-            // Update last login
-            userRepository.updateLastLogin(user.getId(), LocalDateTime.now());
-            
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-            String accessToken = tokenProvider.generateAccessToken(authentication);
-            String refreshToken = createRefreshToken(user, httpRequest);
-            
-            return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .expiresIn(tokenProvider.getJwtExpirationMs())
-                .user(mapToUserResponse(user))
-                .build();
-                
-        } catch (Exception e) {
-            // Increment failed login attempts
-            int newFailCount = user.getFailedLoginAttempts() + 1;
-            LocalDateTime lockTime = null;
-            
-            if (newFailCount >= MAX_LOGIN_ATTEMPTS) {
-                lockTime = LocalDateTime.now().plusMinutes(LOCK_TIME_MINUTES);
-            }
-            
-            userRepository.updateFailedAttempts(user.getId(), newFailCount, lockTime);
+        // Verify the password directly instead of reloading the user through the AuthenticationManager.
+        // ServiceBusyException from the hashing pool propagates and is not counted as a failure
+        if (user.getPassword() == null || !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            LoginAttemptTracker.Attempts attempts = loginAttemptTracker.recordFailure(user.getId());
+            loginActivityBuffer.recordFailure(user.getId(), attempts.failures(), attempts.lockedUntil());
             throw new RuntimeException("Invalid credentials");
         }
-    }
-    
-    @Transactional
-    public AuthResponse refreshToken(String refreshToken) {
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
-            .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
         
-        if (token.getRevokedAt() != null) {
-            throw new RuntimeException("Refresh token has been revoked");
+        // Rehash when the configured BCrypt cost has been raised since this hash was made
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            userRepository.updatePassword(user.getUsername(), passwordEncoder.encode(request.getPassword()));
         }
         
-        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Refresh token has expired");
-        }
+        loginAttemptTracker.reset(user.getId());
+        loginActivityBuffer.recordSuccess(user.getId(), httpRequest != null ? getClientIp(httpRequest) : null);
         
-        User user = token.getUser();
+        String accessToken = tokenProvider.generateAccessToken(user);
+        String refreshToken = refreshTokenService.issue(user, httpRequest);
         
-        Authentication authentication = new UsernamePasswordAuthenticationToken(
-            user.getUsername(), null, 
-            user.getRoles().stream()
-                .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority(
-                    role.getName().name()))
-                .collect(Collectors.toList())
-        );
+        return AuthResponse.builder()
+            .accessToken(accessToken)
+            .refreshToken(refreshToken)
+            .tokenType("Bearer")
+            .expiresIn(tokenProvider.getJwtExpirationMs())
+            .user(mapToUserResponse(user))
+            .build();
+    }
+    
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refreshToken(String refreshToken, HttpServletRequest httpRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken, httpRequest);
+        User user = rotation.user();
         
-        String newAccessToken = tokenProvider.generateAccessToken(authentication);
+        String newAccessToken = tokenProvider.generateAccessToken(user);
         
         return AuthResponse.builder()
             .accessToken(newAccessToken)
-            .refreshToken(refreshToken)
+            .refreshToken(rotation.token())
             .tokenType("Bearer")
             .expiresIn(tokenProvider.getJwtExpirationMs())
             .user(mapToUserResponse(user))
@@ -275,9 +235,22 @@ public class AuthService {
     
     @Transactional
     public void logout(String refreshToken) {
-        refreshTokenRepository.findByToken(refreshToken).ifPresent(token -> {
-            refreshTokenRepository.revokeToken(token.getToken(), LocalDateTime.now());
-        });
+        refreshTokenService.revoke(refreshToken);
+    }
+    
+    /**
+     * Sign the current user out on every device: revoke all refresh tokens and reject all access tokens issued so far
+     */
+    @Transactional
+    public void logoutAll() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        refreshTokenRepository.revokeAllByUserId(user.getId(), LocalDateTime.now());
+        tokenVersionService.revokeAll(user.getId());
+        
+        log.info("User {} logged out from all devices", user.getUsername());
     }
     
     @Transactional
@@ -286,13 +259,7 @@ public class AuthService {
             .orElseThrow(() -> new RuntimeException("User not found with this email address"));
         
         // Generate password reset token
-        String resetToken = generateSecureToken();
-        LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(1); // Token expires in 1 hour
-        
-        user.setPasswordResetToken(resetToken);
-        user.setPasswordResetTokenExpiresAt(tokenExpiry);
-        
-        userRepository.save(user);
+        String resetToken = oneTimeTokenService.issue(user, OneTimeTokenPurpose.PASSWORD_RESET, PASSWORD_RESET_TOKEN_VALIDITY);
         
         // Send password reset email
         try {
@@ -316,19 +283,19 @@ public class AuthService {
     
     @Transactional
     public Map<String, String> resetPassword(String token, String newPassword) {
-        User user = userRepository.findByPasswordResetToken(token)
+        OneTimeToken reset = oneTimeTokenService.find(token, OneTimeTokenPurpose.PASSWORD_RESET)
             .orElseThrow(() -> new RuntimeException("Invalid password reset token"));
         
         // Check if token has expired
-        if (user.getPasswordResetTokenExpiresAt() == null || 
-            user.getPasswordResetTokenExpiresAt().isBefore(LocalDateTime.now())) {
+        if (reset.getExpiresAt().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Password reset token has expired. Please request a new one.");
         }
         
-        // Update password
+        // Update password and invalidate access tokens issued with the old one
+        User user = reset.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
-        user.setPasswordResetToken(null);
-        user.setPasswordResetTokenExpiresAt(null);
+        oneTimeTokenService.consume(reset);
+        user.setTokenVersion(user.getTokenVersion() + 1);
         
         // Reset failed login attempts if any
         if (user.getFailedLoginAttempts() > 0) {
@@ -337,6 +304,8 @@ public class AuthService {
         }
         
         userRepository.save(user);
+        tokenVersionService.evictAfterCommit(user.getId());
+        loginAttemptTracker.reset(user.getId());
         
         log.info("Password reset successfully for user: {}", user.getUsername());
         
@@ -346,26 +315,6 @@ public class AuthService {
         );
     }
     
-    private String createRefreshToken(User user, HttpServletRequest request) {
-        String token = tokenProvider.generateRefreshToken(user.getUsername());
-        
-        long expirationMillis = tokenProvider.getJwtRefreshExpirationMs();
-        long expirationSeconds = expirationMillis / 1000;
-        
-        RefreshToken refreshToken = RefreshToken.builder()
-            .user(user)
-            .token(token)
-            .createdAt(LocalDateTime.now())
-            .expiresAt(LocalDateTime.now().plusSeconds(expirationSeconds))
-            .ipAddress(request != null ? getClientIp(request) : null)
-            .userAgent(request != null ? request.getHeader("User-Agent") : null)
-            .build();
-        
-        refreshTokenRepository.save(refreshToken);
-        
-        return token;
-    }
-    
     private String getClientIp(HttpServletRequest request) {
         String xfHeader = request.getHeader("X-Forwarded-For");
         if (xfHeader == null) {
@@ -31,6 +31,9 @@ public class BookingService {
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
     private final DiscountRepository discountRepository;
+    private final DiscountCatalog discountCatalog;
+    private final DiscountService discountService;
+    private final DiscountRedemptionService discountRedemptionService;
     private final BookingDiscountRepository bookingDiscountRepository;
 
     /**
@@ -83,14 +86,15 @@ public class BookingService {
         BigDecimal totalPrice = room.getBasePrice().multiply(BigDecimal.valueOf(numberOfNights));
 
         BigDecimal discountAmount = BigDecimal.ZERO;
-        Discount discount = null;
+        DiscountSnapshot discount = null;
 
-        // Apply discount if code provided
+        // Apply discount if code provided (validated against the in-memory catalog)
         if (request.getDiscountCode() != null && !request.getDiscountCode().isEmpty()) {
-            discount = discountRepository.findValidDiscountByCode(request.getDiscountCode(), LocalDateTime.now())
+            discount = discountCatalog.findValid(request.getDiscountCode(), LocalDateTime.now())
                     .orElseThrow(() -> new IllegalArgumentException("Invalid or expired discount code"));
 
-            discountAmount = calculateDiscount(discount, totalPrice);
+            discountAmount = discountService.calculateDiscount(discount, user.getId(), List.of(
+                    DiscountContext.of(request.getCheckInDate(), request.getCheckOutDate(), totalPrice)));
         }
         BigDecimal finalPrice = totalPrice.subtract(discountAmount);
 
@@ -119,22 +123,23 @@ public class BookingService {
         if (discount != null) {
             BookingDiscount bookingDiscount = BookingDiscount.builder()
                     .booking(savedBooking)
-                    .discount(discount)
+                    .discount(discountRepository.getReferenceById(discount.id()))
                     .discountAmount(discountAmount)
                     .discountCode(request.getDiscountCode())
                     .appliedAt(LocalDateTime.now())
                     .build();
             bookingDiscountRepository.save(bookingDiscount);
-
-            // Update discount usage count
-            discount.setCurrentUsageCount(discount.getCurrentUsageCount() + 1);
-            discountRepository.save(discount);
         }
 
         // Update room status to RESERVED
         room.setStatus(RoomStatus.RESERVED);
         roomRepository.save(room);
 
+        // Redeem the discount last so its hot row is locked only until the commit that follows
+        if (discount != null) {
+            discountRedemptionService.redeem(discount, user.getId());
+        }
+
         log.info("Booking created successfully with confirmation: {}", confirmationNumber);
 
         return mapToBookingResponse(savedBooking);
@@ -363,23 +368,6 @@ public class BookingService {
         }
     }
 
-    private BigDecimal calculateDiscount(Discount discount, BigDecimal totalPrice) {
-        BigDecimal discountAmount;
-
-        if (discount.getPercentageValue() != null) {
-            discountAmount = totalPrice.multiply(discount.getPercentageValue()).divide(BigDecimal.valueOf(100));
-        } else {
-            discountAmount = discount.getFixedAmount();
-        }
-
-        // Apply max discount limit if set
-        if (discount.getMaxDiscountAmount() != null && discountAmount.compareTo(discount.getMaxDiscountAmount()) > 0) {
-            discountAmount = discount.getMaxDiscountAmount();
-        }
-
-        return discountAmount;
-    }
-
     private void recalculateBookingPrices(Booking booking) {
         long numberOfNights = ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
         BigDecimal totalPrice = booking.getRoom().getBasePrice().multiply(BigDecimal.valueOf(numberOfNights));
@@ -0,0 +1,138 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.ResourceNotFoundException;
+import com.system.hotel_room_booking.model.dto.request.GenerateCampaignCodesRequest;
+import com.system.hotel_room_booking.model.dto.response.CampaignCodesResponse;
+import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.repository.DiscountCodeBatchRepository;
+import com.system.hotel_room_booking.repository.DiscountRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk generation of single-use campaign codes
+ * Each code is a copy of a template discount limited to one use, written straight to the discounts table
+ * in chunks; every chunk commits on its own, so a failure keeps the codes generated so far
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignCodeService {
+
+    // No 0/O or 1/I, so codes survive being read aloud or typed from print
+    private static final char[] CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int MAX_CODE_LENGTH = 50;
+    private static final int MAX_FRUITLESS_CHUNKS = 10;
+
+    private final DiscountRepository discountRepository;
+    private final DiscountCodeBatchRepository discountCodeBatchRepository;
+    private final DiscountCodeFilter discountCodeFilter;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${discount.campaign.batch-size:1000}")
+    private int batchSize;
+
+    @PostConstruct
+    void validateBatchSize() {
+        if (batchSize < 1 || batchSize > DiscountCodeBatchRepository.MAX_CODES_PER_INSERT) {
+            int clamped = Math.max(1, Math.min(batchSize, DiscountCodeBatchRepository.MAX_CODES_PER_INSERT));
+            log.warn("discount.campaign.batch-size {} is out of range, using {}", batchSize, clamped);
+            batchSize = clamped;
+        }
+    }
+
+    /**
+     * Generate single-use codes from the template discount
+     * The template's code becomes the campaign name of the generated codes
+     */
+    public CampaignCodesResponse generateCodes(Long templateId, GenerateCampaignCodesRequest request) {
+        Discount template = findTemplate(templateId);
+
+        String prefix = request.getPrefix() != null ? request.getPrefix() : "";
+        int codeLength = request.getCodeLength() != null ? request.getCodeLength() : 12;
+        if (prefix.length() + codeLength > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Prefix and code length must not exceed " + MAX_CODE_LENGTH + " characters");
+        }
+
+        log.info("Generating {} codes for campaign {}", request.getCount(), template.getCode());
+        long start = System.nanoTime();
+
+        int generated = 0;
+        int fruitlessChunks = 0;
+        List<String> chunk = new ArrayList<>(batchSize);
+        while (generated < request.getCount()) {
+            chunk.clear();
+            int chunkSize = Math.min(batchSize, request.getCount() - generated);
+            for (int i = 0; i < chunkSize; i++) {
+                chunk.add(prefix + randomCode(codeLength));
+            }
+
+            // Colliding codes are skipped by INSERT IGNORE and made up for in the next chunk
+            int inserted = discountCodeBatchRepository.insertCampaignCodes(template, template.getCode(), chunk);
+            // The chunk has committed, so its codes can be looked up from now on
+            chunk.forEach(discountCodeFilter::add);
+            generated += inserted;
+
+            if (inserted == 0 && ++fruitlessChunks >= MAX_FRUITLESS_CHUNKS) {
+                throw new IllegalStateException("Code space exhausted, use a longer code length");
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} codes for campaign {} in {} ms", generated, template.getCode(), durationMs);
+
+        return CampaignCodesResponse.builder()
+                .campaign(template.getCode())
+                .requested(request.getCount())
+                .generated(generated)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Write the codes generated from the template, one per line
+     */
+    public void writeCodes(Long templateId, Writer writer) throws IOException {
+        Discount template = findTemplate(templateId);
+        try {
+            discountCodeBatchRepository.forEachCampaignCode(template.getCode(), code -> {
+                try {
+                    writer.write(code);
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private Discount findTemplate(Long templateId) {
+        Discount template = discountRepository.findById(templateId)
+                .orElseThrow(() -> new ResourceNotFoundException("Discount", "id", templateId));
+        if (template.getCampaign() != null) {
+            throw new IllegalArgumentException("A campaign code cannot be used as a template");
+        }
+        return template;
+    }
+
+    private String randomCode(int length) {
+        char[] code = new char[length];
+        for (int i = 0; i < length; i++) {
+            code[i] = CODE_ALPHABET[random.nextInt(CODE_ALPHABET.length)];
+        }
+        return new String(code);
+    }
+}
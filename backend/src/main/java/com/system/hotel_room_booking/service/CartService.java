@@ -15,8 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +37,8 @@ public class CartService {
     private final RoomAvailabilityRepository roomAvailabilityRepository;
     private final UserRepository userRepository;
     private final DiscountService discountService;
+    private final DiscountCatalog discountCatalog;
+    private final DiscountRedemptionService discountRedemptionService;
     private final PaymentService paymentService;
 
     /**
@@ -174,7 +178,7 @@ public class CartService {
         }
 
         // Validate and apply discount
-        BigDecimal discountAmount = discountService.calculateDiscount(discountCode, cart.getSubtotal());
+        BigDecimal discountAmount = discountService.calculateDiscount(discountCode, user.getId(), toDiscountStays(cart));
         
         cart.setAppliedDiscountCode(discountCode);
         cart.setDiscountAmount(discountAmount);
@@ -188,6 +192,37 @@ public class CartService {
         return mapToResponse(cart);
     }
 
+    /**
+     * Apply the discount that saves the most on the cart
+     * Leaves the cart unchanged if no discount applies
+     */
+    public CartResponse applyBestDiscount() {
+        User user = getCurrentUser();
+        Cart cart = cartRepository.findByUserIdAndStatus(user.getId(), CartStatus.ACTIVE)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", user.getId()));
+
+        if (cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Cannot apply discount to empty cart");
+        }
+
+        Optional<DiscountOffer> best = discountService.findBestDiscount(user.getId(), toDiscountStays(cart));
+        if (best.isEmpty()) {
+            log.info("No discount applies to cart {}", cart.getId());
+            return mapToResponse(cart);
+        }
+
+        cart.setAppliedDiscountCode(best.get().discount().code());
+        cart.setDiscountAmount(best.get().amount());
+
+        // Recalculate totals
+        recalculateCartTotals(cart);
+        cartRepository.save(cart);
+
+        log.info("Applied best discount {} to cart", best.get().discount().code());
+
+        return mapToResponse(cart);
+    }
+
     /**
      * Remove discount from cart
      */
@@ -226,8 +261,22 @@ public class CartService {
             validateRoomAvailability(item);
         }
 
+        // Apply discount if one is on the cart (validated against the in-memory catalog)
+        DiscountSnapshot discount = null;
+        if (cart.getAppliedDiscountCode() != null && !cart.getAppliedDiscountCode().isEmpty()) {
+            discount = discountCatalog.findValid(cart.getAppliedDiscountCode(), LocalDateTime.now())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid or expired discount code"));
+        }
+
         // Initiate payment through PaymentService
-        CheckoutResponse response = paymentService.initiatePayment(cart);
+        CheckoutResponse response = paymentService.initiatePayment(cart, discount);
+
+        // Reserve the discount for the pending payment, so the code cannot run out before it is paid;
+        // PaymentService releases it if the payment fails, is cancelled or expires.
+        // Redeemed last so its hot row is locked only until the commit that follows
+        if (discount != null) {
+            discountRedemptionService.redeem(discount, user.getId());
+        }
 
         log.info("Checkout initiated for cart {}, transaction: {}", cart.getId(), response.getTransactionId());
 
@@ -271,8 +320,9 @@ public class CartService {
         if (cart.getAppliedDiscountCode() != null && !cart.getAppliedDiscountCode().isEmpty()) {
             try {
                 BigDecimal discountAmount = discountService.calculateDiscount(
-                    cart.getAppliedDiscountCode(), 
-                    subtotal
+                    cart.getAppliedDiscountCode(),
+                    cart.getUser().getId(),
+                    toDiscountStays(cart)
                 );
                 cart.setDiscountAmount(discountAmount);
             } catch (Exception e) {
@@ -293,6 +343,16 @@ public class CartService {
         cart.setTotalPrice(total);
     }
 
+    /**
+     * Cart items as stays for discount rule evaluation
+     */
+    private List<DiscountContext> toDiscountStays(Cart cart) {
+        LocalDate today = LocalDate.now();
+        return cart.getItems().stream()
+            .map(item -> DiscountContext.of(today, item.getCheckInDate(), item.getCheckOutDate(), item.getPrice()))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Validate room availability for cart item
      */
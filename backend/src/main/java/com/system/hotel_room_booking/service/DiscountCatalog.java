@@ -0,0 +1,365 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.model.entity.DiscountType;
+import com.system.hotel_room_booking.repository.DiscountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory discount catalog indexed by code and by type
+ * Loaded at startup, refreshed periodically (picks up usage counts and other instances' edits)
+ * and updated write-through by DiscountService after each committed change
+ * Usage counts are kept in per-discount counters beside the index, so a redemption never rebuilds it
+ * Write-throughs made while a refresh is loading are re-applied on top of what it loaded
+ * Bulk-generated campaign codes are not held in memory: they are looked up in the database,
+ * and only when DiscountCodeFilter says the code may exist
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountCatalog {
+
+    private final DiscountRepository discountRepository;
+    private final DiscountCodeFilter discountCodeFilter;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> usageCounts = new ConcurrentHashMap<>();
+    private final Object refreshLock = new Object();
+
+    private volatile Index index;
+
+    // Set while a refresh is loading; puts and removals are guarded by this
+    private Map<Long, DiscountSnapshot> pendingPuts;
+    private Set<Long> pendingRemovals;
+    private volatile Map<Long, AtomicInteger> pendingUsage;
+
+    /**
+     * Immutable lookup structures, replaced as a whole on every change
+     */
+    private record Index(Map<String, DiscountSnapshot> byCode,
+                         Map<Long, DiscountSnapshot> byId,
+                         Map<DiscountType, List<DiscountSnapshot>> byType,
+                         DiscountSnapshot[] byMinOrder,
+                         BigDecimal[] minOrderThresholds) {
+
+        static Index of(Collection<DiscountSnapshot> snapshots) {
+            Map<String, DiscountSnapshot> byCode = new HashMap<>();
+            Map<Long, DiscountSnapshot> byId = new HashMap<>();
+            for (DiscountSnapshot snapshot : snapshots) {
+                byCode.put(normalize(snapshot.code()), snapshot);
+                byId.put(snapshot.id(), snapshot);
+            }
+
+            // Per type, ordered by start of validity window (open start first)
+            Map<DiscountType, List<DiscountSnapshot>> byType = snapshots.stream()
+                    .sorted(Comparator.comparing(DiscountSnapshot::validFrom, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .collect(Collectors.groupingBy(DiscountSnapshot::type,
+                            () -> new EnumMap<>(DiscountType.class),
+                            Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+
+            // Active discounts ordered by minimum order amount (no minimum first), so the ones an order
+            // qualifies for are a prefix found by binary search
+            DiscountSnapshot[] byMinOrder = snapshots.stream()
+                    .filter(DiscountSnapshot::active)
+                    .sorted(Comparator.comparing(Index::minOrderThreshold))
+                    .toArray(DiscountSnapshot[]::new);
+            BigDecimal[] minOrderThresholds = Arrays.stream(byMinOrder)
+                    .map(Index::minOrderThreshold)
+                    .toArray(BigDecimal[]::new);
+
+            return new Index(Map.copyOf(byCode), Map.copyOf(byId), Collections.unmodifiableMap(byType),
+                    byMinOrder, minOrderThresholds);
+        }
+
+        private static BigDecimal minOrderThreshold(DiscountSnapshot snapshot) {
+            return snapshot.minOrderAmount() != null ? snapshot.minOrderAmount() : BigDecimal.ZERO;
+        }
+
+        /**
+         * Number of leading byMinOrder entries whose minimum the order amount meets
+         */
+        int qualifyingCount(BigDecimal orderAmount) {
+            int low = 0;
+            int high = minOrderThresholds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minOrderThresholds[mid].compareTo(orderAmount) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Find a discount by code (case-insensitive, matching the database collation)
+     */
+    public Optional<DiscountSnapshot> findByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        DiscountSnapshot snapshot = index().byCode().get(normalize(code));
+        if (snapshot != null) {
+            return Optional.of(withLiveUsage(snapshot));
+        }
+        // Campaign codes (or a code not loaded yet): the filter rejects most guesses before the query
+        if (!discountCodeFilter.mightExist(code)) {
+            return Optional.empty();
+        }
+        return discountRepository.findByCode(code.trim()).map(DiscountSnapshot::from);
+    }
+
+    /**
+     * Find a discount by code that is active, inside its validity window and has usage left
+     */
+    public Optional<DiscountSnapshot> findValid(String code, LocalDateTime now) {
+        return findByCode(code).filter(snapshot -> snapshot.isValidAt(now));
+    }
+
+    /**
+     * All discounts of a type that are valid at the given time
+     */
+    public List<DiscountSnapshot> findValidByType(DiscountType type, LocalDateTime now) {
+        List<DiscountSnapshot> candidates = index().byType().getOrDefault(type, List.of());
+        List<DiscountSnapshot> valid = new ArrayList<>();
+        for (DiscountSnapshot snapshot : candidates) {
+            // Sorted by validFrom, so nothing after this one has started yet
+            if (snapshot.validFrom() != null && snapshot.validFrom().isAfter(now)) {
+                break;
+            }
+            DiscountSnapshot live = withLiveUsage(snapshot);
+            if (live.isValidAt(now)) {
+                valid.add(live);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * All discounts valid at the given time
+     */
+    public List<DiscountSnapshot> findAllValid(LocalDateTime now) {
+        return index().byId().values().stream()
+                .map(this::withLiveUsage)
+                .filter(snapshot -> snapshot.isValidAt(now))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * All discounts valid at the given time whose minimum order amount the order meets
+     * Discounts above the order's threshold are never visited
+     */
+    public List<DiscountSnapshot> findApplicable(BigDecimal orderAmount, LocalDateTime now) {
+        Index current = index();
+        int qualifying = current.qualifyingCount(orderAmount);
+        List<DiscountSnapshot> applicable = new ArrayList<>(qualifying);
+        for (int i = 0; i < qualifying; i++) {
+            DiscountSnapshot snapshot = withLiveUsage(current.byMinOrder()[i]);
+            if (snapshot.isValidAt(now)) {
+                applicable.add(snapshot);
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * Publish the discount to the catalog once the current transaction commits
+     */
+    public void putAfterCommit(Discount discount) {
+        runAfterCommit(() -> {
+            discountCodeFilter.add(discount.getCode());
+            if (discount.getCampaign() == null) {
+                put(DiscountSnapshot.from(discount));
+            }
+        });
+    }
+
+    /**
+     * Drop the discount from the catalog once the current transaction commits
+     */
+    public void removeAfterCommit(Long discountId) {
+        runAfterCommit(() -> remove(discountId));
+    }
+
+    /**
+     * Count one more use of the discount once the current transaction commits
+     * Keeps usage-based validity close to the database between full refreshes
+     */
+    public void recordUsageAfterCommit(Long discountId) {
+        runAfterCommit(() -> incrementUsage(discountId));
+    }
+
+    /**
+     * Count one use of the discount less once the current transaction commits
+     */
+    public void releaseUsageAfterCommit(Long discountId) {
+        runAfterCommit(() -> decrementUsage(discountId));
+    }
+
+    /**
+     * Reload the whole catalog from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${discount.catalog.refresh-ms:60000}",
+               initialDelayString = "${discount.catalog.refresh-ms:60000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                pendingPuts = new HashMap<>();
+                pendingRemovals = new HashSet<>();
+                pendingUsage = new ConcurrentHashMap<>();
+            }
+            try {
+                List<DiscountSnapshot> snapshots = discountRepository.findByCampaignIsNull().stream()
+                        .map(DiscountSnapshot::from)
+                        .collect(Collectors.toList());
+                apply(snapshots);
+                log.debug("Discount catalog loaded {} discounts", snapshots.size());
+            } finally {
+                synchronized (this) {
+                    pendingPuts = null;
+                    pendingRemovals = null;
+                    pendingUsage = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the index with the loaded discounts plus the write-throughs made while they were loading
+     * A use counted during the load may already be in the loaded count; counting it twice until the next
+     * refresh only makes the catalog stricter, and the database enforces the real limit
+     */
+    private synchronized void apply(List<DiscountSnapshot> loaded) {
+        Map<Long, DiscountSnapshot> snapshots = new HashMap<>();
+        for (DiscountSnapshot snapshot : loaded) {
+            snapshots.put(snapshot.id(), snapshot);
+        }
+        snapshots.putAll(pendingPuts);
+        pendingRemovals.forEach(snapshots::remove);
+
+        Map<Long, AtomicInteger> usedDuringLoad = pendingUsage;
+        for (DiscountSnapshot snapshot : snapshots.values()) {
+            AtomicInteger extra = usedDuringLoad.get(snapshot.id());
+            usageCounts.computeIfAbsent(snapshot.id(), id -> new AtomicInteger())
+                    .set(snapshot.currentUsageCount() + (extra != null ? extra.get() : 0));
+        }
+        usageCounts.keySet().retainAll(snapshots.keySet());
+        index = Index.of(snapshots.values());
+    }
+
+    private synchronized void put(DiscountSnapshot snapshot) {
+        if (pendingPuts != null) {
+            pendingPuts.put(snapshot.id(), snapshot);
+            pendingRemovals.remove(snapshot.id());
+            // The snapshot's count already includes earlier uses
+            pendingUsage.remove(snapshot.id());
+        }
+        usageCounts.computeIfAbsent(snapshot.id(), id -> new AtomicInteger()).set(snapshot.currentUsageCount());
+
+        Index current = index;
+        if (current == null) {
+            // Nothing loaded yet: the first load reads the committed discount
+            return;
+        }
+        Map<Long, DiscountSnapshot> snapshots = new HashMap<>(current.byId());
+        snapshots.put(snapshot.id(), snapshot);
+        index = Index.of(snapshots.values());
+    }
+
+    private void incrementUsage(Long discountId) {
+        AtomicInteger used = usageCounts.get(discountId);
+        if (used != null) {
+            used.incrementAndGet();
+        }
+        Map<Long, AtomicInteger> usedDuringLoad = pendingUsage;
+        if (usedDuringLoad != null) {
+            usedDuringLoad.computeIfAbsent(discountId, id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void decrementUsage(Long discountId) {
+        AtomicInteger used = usageCounts.get(discountId);
+        if (used != null) {
+            used.updateAndGet(count -> Math.max(0, count - 1));
+        }
+        Map<Long, AtomicInteger> usedDuringLoad = pendingUsage;
+        if (usedDuringLoad != null) {
+            usedDuringLoad.computeIfAbsent(discountId, id -> new AtomicInteger()).decrementAndGet();
+        }
+    }
+
+    private synchronized void remove(Long discountId) {
+        if (pendingPuts != null) {
+            pendingPuts.remove(discountId);
+            pendingRemovals.add(discountId);
+        }
+        usageCounts.remove(discountId);
+
+        Index current = index;
+        if (current == null || !current.byId().containsKey(discountId)) {
+            return;
+        }
+        Map<Long, DiscountSnapshot> snapshots = new HashMap<>(current.byId());
+        snapshots.remove(discountId);
+        index = Index.of(snapshots.values());
+    }
+
+    /**
+     * The snapshot with this instance's latest usage count, which moves on between refreshes
+     */
+    private DiscountSnapshot withLiveUsage(DiscountSnapshot snapshot) {
+        AtomicInteger used = usageCounts.get(snapshot.id());
+        if (used == null) {
+            return snapshot;
+        }
+        int count = used.get();
+        return count == snapshot.currentUsageCount() ? snapshot : snapshot.withCurrentUsageCount(count);
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            // Not holding this while loading, so write-throughs are never blocked behind the query
+            synchronized (refreshLock) {
+                if (index == null) {
+                    refresh();
+                }
+            }
+            current = index;
+        }
+        return current;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
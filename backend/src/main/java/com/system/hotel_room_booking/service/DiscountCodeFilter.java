@@ -0,0 +1,118 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.repository.DiscountCodeBatchRepository;
+import com.system.hotel_room_booking.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter of every discount code in the database
+ * Lets code lookups reject guessed codes without loading a discount. Rebuilt from scratch periodically
+ * (drops deleted codes, resizes), extended with newer rows between rebuilds and with local inserts as they commit
+ * A miss is trusted: codes created by another instance stay unknown here until the next catch-up pass,
+ * so they can be rejected for up to one catch-up interval after they are created
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountCodeFilter {
+
+    // Re-read rows created slightly before the last pass, covering transactions that committed late
+    // and clock skew between instances; adding a code twice is harmless
+    private static final Duration PASS_OVERLAP = Duration.ofSeconds(30);
+
+    private final DiscountCodeBatchRepository discountCodeBatchRepository;
+
+    @Value("${discount.code-filter.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Every code created before this time is in the filter
+    private volatile LocalDateTime coveredBefore;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Whether the code may exist; false means it certainly does not
+     * Answers true until the filter has been built
+     */
+    public boolean mightExist(String code) {
+        BloomFilter current = filter;
+        return current == null || code == null || current.mightContain(normalize(code));
+    }
+
+    /**
+     * Record a code once the transaction that created it has committed
+     */
+    public void add(String code) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(normalize(code));
+            insertions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rebuild the filter from all codes in the database, sized for twice the current count
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${discount.code-filter.rebuild-ms:3600000}",
+               initialDelayString = "${discount.code-filter.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        LocalDateTime passStart = LocalDateTime.now();
+        long count = discountCodeBatchRepository.countCodes();
+        BloomFilter rebuilt = new BloomFilter(Math.max(1024, count * 2), falsePositiveRate);
+        AtomicLong loaded = new AtomicLong();
+        discountCodeBatchRepository.forEachCodeAfter(0, code -> {
+            rebuilt.add(normalize(code));
+            loaded.incrementAndGet();
+        });
+
+        // Publish the coverage before the filter, so a lookup never trusts a filter with an older bound
+        coveredBefore = passStart.minus(PASS_OVERLAP);
+        filter = rebuilt;
+        insertions.set(loaded.get());
+        log.info("Discount code filter built with {} codes", insertions.get());
+    }
+
+    /**
+     * Add codes created since the last pass, including those created by other instances
+     */
+    @Scheduled(fixedDelayString = "${discount.catalog.refresh-ms:60000}",
+               initialDelayString = "${discount.catalog.refresh-ms:60000}")
+    public synchronized void catchUp() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+
+        LocalDateTime passStart = LocalDateTime.now();
+        AtomicLong added = new AtomicLong();
+        discountCodeBatchRepository.forEachCodeCreatedSince(coveredBefore, code -> {
+            String normalized = normalize(code);
+            if (!current.mightContain(normalized)) {
+                current.add(normalized);
+                added.incrementAndGet();
+            }
+        });
+        coveredBefore = passStart.minus(PASS_OVERLAP);
+
+        // Past its capacity the false positive rate climbs, resize early instead of waiting for the next rebuild
+        if (insertions.addAndGet(added.get()) > current.capacity()) {
+            rebuild();
+        }
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
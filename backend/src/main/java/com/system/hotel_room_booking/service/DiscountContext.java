@@ -0,0 +1,42 @@
+package com.system.hotel_room_booking.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One stay a discount rule is evaluated against (a cart item or a direct booking)
+ * Day counts are computed once here so rules only compare numbers
+ */
+public record DiscountContext(
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        long leadDays,
+        long nights,
+        BigDecimal amount,
+        long userBookingCount) {
+
+    /**
+     * Context for a stay booked today, without the user's booking history
+     */
+    public static DiscountContext of(LocalDate checkInDate, LocalDate checkOutDate, BigDecimal amount) {
+        return of(LocalDate.now(), checkInDate, checkOutDate, amount);
+    }
+
+    public static DiscountContext of(LocalDate bookingDate, LocalDate checkInDate, LocalDate checkOutDate, BigDecimal amount) {
+        return new DiscountContext(
+                checkInDate,
+                checkOutDate,
+                ChronoUnit.DAYS.between(bookingDate, checkInDate),
+                ChronoUnit.DAYS.between(checkInDate, checkOutDate),
+                amount,
+                0);
+    }
+
+    /**
+     * Copy carrying the number of bookings the user has already made
+     */
+    public DiscountContext withUserBookingCount(long count) {
+        return new DiscountContext(checkInDate, checkOutDate, leadDays, nights, amount, count);
+    }
+}
@@ -0,0 +1,9 @@
+package com.system.hotel_room_booking.service;
+
+import java.math.BigDecimal;
+
+/**
+ * A discount together with the amount it saves on a specific set of stays
+ */
+public record DiscountOffer(DiscountSnapshot discount, BigDecimal amount) {
+}
@@ -0,0 +1,65 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.InvalidDiscountException;
+import com.system.hotel_room_booking.repository.DiscountRedemptionRepository;
+import com.system.hotel_room_booking.repository.DiscountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records discount redemptions without read-modify-write
+ * Both the per-user limit and the global limit are enforced by conditional UPDATEs,
+ * so concurrent redemptions can neither lose updates nor oversell a code
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountRedemptionService {
+
+    private final DiscountRepository discountRepository;
+    private final DiscountRedemptionRepository discountRedemptionRepository;
+    private final DiscountCatalog discountCatalog;
+
+    /**
+     * Redeem one use of the discount for the user within the caller's transaction
+     * Call it as late as possible in the transaction: the discount row stays locked until commit
+     *
+     * @throws InvalidDiscountException if the user or the code has no uses left (the caller's transaction rolls back)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void redeem(DiscountSnapshot discount, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Per-user row first, then the shared discount row, always in this order to avoid deadlocks.
+        // Counted even without a per-user limit so a limit added later sees past redemptions
+        discountRedemptionRepository.insertIfAbsent(discount.id(), userId, now);
+        if (discountRedemptionRepository.incrementIfBelow(discount.id(), userId, discount.maxUsagePerUser(), now) == 0) {
+            throw new InvalidDiscountException("You have already used this discount code the maximum number of times");
+        }
+
+        if (discountRepository.reserveUsage(discount.id()) == 0) {
+            throw new InvalidDiscountException("Discount code has reached its usage limit");
+        }
+
+        discountCatalog.recordUsageAfterCommit(discount.id());
+        log.info("Redeemed discount {} for user {}", discount.code(), userId);
+    }
+
+    /**
+     * Give back one use of the discount redeemed by the user, within the caller's transaction
+     * Locks the rows in the same order as redeem
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long discountId, Long userId) {
+        discountRedemptionRepository.decrementIfPositive(discountId, userId, LocalDateTime.now());
+        discountRepository.releaseUsage(discountId);
+
+        discountCatalog.releaseUsageAfterCommit(discountId);
+        log.info("Released discount {} for user {}", discountId, userId);
+    }
+}
@@ -0,0 +1,194 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.InvalidDiscountException;
+import com.system.hotel_room_booking.model.entity.DiscountType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A discount compiled once into its conditions and its calculator
+ * Built by DiscountSnapshot when the catalog loads or changes, then evaluated per stay
+ * without re-reading the discount's settings
+ */
+public final class DiscountRule {
+
+    /** Booking lead time required by an EARLY_BIRD discount without minLeadDays */
+    static final int DEFAULT_EARLY_BIRD_LEAD_DAYS = 30;
+
+    /** Booking lead time allowed by a LAST_MINUTE discount without maxLeadDays */
+    static final int DEFAULT_LAST_MINUTE_LEAD_DAYS = 3;
+
+    /** Previous bookings required by a LOYALTY discount without minUserBookings */
+    static final int DEFAULT_LOYALTY_MIN_BOOKINGS = 1;
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean test(DiscountContext context);
+    }
+
+    private static final Condition[] NO_CONDITIONS = new Condition[0];
+
+    private final Condition[] conditions;
+    private final boolean requiresUserBookingCount;
+    private final BigDecimal rate;        // percentage / 100, null for fixed amount discounts
+    private final BigDecimal fixedAmount;
+    private final BigDecimal maxDiscountAmount;
+
+    private DiscountRule(Condition[] conditions, boolean requiresUserBookingCount,
+                         BigDecimal rate, BigDecimal fixedAmount, BigDecimal maxDiscountAmount) {
+        this.conditions = conditions;
+        this.requiresUserBookingCount = requiresUserBookingCount;
+        this.rate = rate;
+        this.fixedAmount = fixedAmount;
+        this.maxDiscountAmount = maxDiscountAmount;
+    }
+
+    /**
+     * Compile a discount's settings, filling in the defaults that give each type its meaning
+     */
+    static DiscountRule compile(DiscountType type,
+                                BigDecimal percentageValue,
+                                BigDecimal fixedAmount,
+                                BigDecimal maxDiscountAmount,
+                                LocalDateTime validFrom,
+                                LocalDateTime validUntil,
+                                Integer minLeadDays,
+                                Integer maxLeadDays,
+                                LocalDate stayFrom,
+                                LocalDate stayUntil,
+                                Integer minNights,
+                                Integer minUserBookings) {
+
+        switch (type) {
+            case EARLY_BIRD:
+                if (minLeadDays == null) minLeadDays = DEFAULT_EARLY_BIRD_LEAD_DAYS;
+                break;
+            case LAST_MINUTE:
+                if (maxLeadDays == null) maxLeadDays = DEFAULT_LAST_MINUTE_LEAD_DAYS;
+                break;
+            case SEASONAL:
+                // The season defaults to the discount's validity window
+                if (stayFrom == null && validFrom != null) stayFrom = validFrom.toLocalDate();
+                if (stayUntil == null && validUntil != null) stayUntil = validUntil.toLocalDate();
+                break;
+            case LOYALTY:
+                if (minUserBookings == null) minUserBookings = DEFAULT_LOYALTY_MIN_BOOKINGS;
+                break;
+            default:
+                break;
+        }
+
+        List<Condition> conditions = new ArrayList<>();
+        if (minLeadDays != null) {
+            long min = minLeadDays;
+            conditions.add(context -> context.leadDays() >= min);
+        }
+        if (maxLeadDays != null) {
+            long max = maxLeadDays;
+            conditions.add(context -> context.leadDays() >= 0 && context.leadDays() <= max);
+        }
+        if (stayFrom != null) {
+            LocalDate from = stayFrom;
+            conditions.add(context -> !context.checkInDate().isBefore(from));
+        }
+        if (stayUntil != null) {
+            LocalDate until = stayUntil;
+            conditions.add(context -> !context.checkInDate().isAfter(until));
+        }
+        if (minNights != null) {
+            long min = minNights;
+            conditions.add(context -> context.nights() >= min);
+        }
+        if (minUserBookings != null) {
+            long min = minUserBookings;
+            conditions.add(context -> context.userBookingCount() >= min);
+        }
+
+        BigDecimal rate;
+        switch (type) {
+            case PERCENTAGE:
+            case EARLY_BIRD:
+            case LAST_MINUTE:
+            case SEASONAL:
+            case LOYALTY:
+                // Exact: orderAmount * rate == orderAmount * percentageValue / 100
+                rate = percentageValue != null ? percentageValue.movePointLeft(2) : BigDecimal.ZERO;
+                break;
+            case FIXED_AMOUNT:
+            case PROMOTIONAL_CODE:
+                rate = null;
+                break;
+            default:
+                throw new InvalidDiscountException("Unknown discount type: " + type);
+        }
+
+        return new DiscountRule(
+                conditions.isEmpty() ? NO_CONDITIONS : conditions.toArray(NO_CONDITIONS),
+                minUserBookings != null,
+                rate,
+                fixedAmount != null ? fixedAmount : BigDecimal.ZERO,
+                maxDiscountAmount);
+    }
+
+    /**
+     * Whether appliesTo needs DiscountContext.userBookingCount filled in
+     */
+    public boolean requiresUserBookingCount() {
+        return requiresUserBookingCount;
+    }
+
+    /**
+     * Whether the stay satisfies every condition of the discount
+     */
+    public boolean appliesTo(DiscountContext context) {
+        for (Condition condition : conditions) {
+            if (!condition.test(context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculate the discount amount, capped by maxDiscountAmount and the amount itself
+     */
+    public BigDecimal calculate(BigDecimal amount) {
+        BigDecimal discountAmount = rate != null
+                ? amount.multiply(rate).setScale(2, RoundingMode.HALF_UP)
+                : fixedAmount;
+
+        // Apply max discount cap if set
+        if (maxDiscountAmount != null && discountAmount.compareTo(maxDiscountAmount) > 0) {
+            discountAmount = maxDiscountAmount;
+        }
+
+        // Ensure discount doesn't exceed the amount
+        if (discountAmount.compareTo(amount) > 0) {
+            discountAmount = amount;
+        }
+
+        return discountAmount;
+    }
+
+    /**
+     * Discount for a set of stays: the amounts of the stays the rule applies to are summed and discounted together
+     * @return the discount, or empty if the rule applies to none of the stays
+     */
+    public Optional<BigDecimal> calculate(List<DiscountContext> stays) {
+        BigDecimal eligibleAmount = BigDecimal.ZERO;
+        boolean eligible = false;
+        for (DiscountContext stay : stays) {
+            if (appliesTo(stay)) {
+                eligibleAmount = eligibleAmount.add(stay.amount());
+                eligible = true;
+            }
+        }
+        return eligible ? Optional.of(calculate(eligibleAmount)) : Optional.empty();
+    }
+}
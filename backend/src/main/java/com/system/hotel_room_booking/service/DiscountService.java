@@ -4,19 +4,25 @@ import com.system.hotel_room_booking.exception.InvalidDiscountException;
 import com.system.hotel_room_booking.exception.ResourceNotFoundException;
 import com.system.hotel_room_booking.model.dto.request.CreateDiscountRequest;
 import com.system.hotel_room_booking.model.dto.response.DiscountResponse;
+import com.system.hotel_room_booking.model.entity.BookingStatus;
 import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.repository.BookingRepository;
+import com.system.hotel_room_booking.repository.DiscountRedemptionRepository;
 import com.system.hotel_room_booking.repository.DiscountRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +32,16 @@ import java.util.stream.Collectors;
 public class DiscountService {
 
     private final DiscountRepository discountRepository;
+    private final DiscountRedemptionRepository discountRedemptionRepository;
+    private final DiscountCatalog discountCatalog;
+    private final DiscountCodeFilter discountCodeFilter;
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Bookings that count towards a user's history for minUserBookings
+     */
+    private static final List<BookingStatus> COUNTED_BOOKING_STATUSES =
+            List.of(BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN, BookingStatus.CHECKED_OUT);
 
     /**
      * Create a new discount
@@ -46,6 +62,9 @@ public class DiscountService {
             throw new IllegalArgumentException("Valid from date must be before valid until date");
         }
 
+        validateDiscountConditions(request.getMinLeadDays(), request.getMaxLeadDays(),
+                request.getStayFrom(), request.getStayUntil());
+
         // Create discount
         Discount discount = Discount.builder()
                 .code(request.getCode())
@@ -61,11 +80,18 @@ public class DiscountService {
                 .maxUsagePerUser(request.getMaxUsagePerUser())
                 .minOrderAmount(request.getMinOrderAmount())
                 .maxDiscountAmount(request.getMaxDiscountAmount())
+                .minLeadDays(request.getMinLeadDays())
+                .maxLeadDays(request.getMaxLeadDays())
+                .stayFrom(request.getStayFrom())
+                .stayUntil(request.getStayUntil())
+                .minNights(request.getMinNights())
+                .minUserBookings(request.getMinUserBookings())
                 .isActive(request.getIsActive())
                 .termsAndConditions(request.getTermsAndConditions())
                 .build();
 
         Discount savedDiscount = discountRepository.save(discount);
+        discountCatalog.putAfterCommit(savedDiscount);
         log.info("Discount created successfully: {}", savedDiscount.getCode());
 
         return mapToDiscountResponse(savedDiscount);
@@ -92,15 +118,25 @@ public class DiscountService {
         if (request.getMaxUsagePerUser() != null) discount.setMaxUsagePerUser(request.getMaxUsagePerUser());
         if (request.getMinOrderAmount() != null) discount.setMinOrderAmount(request.getMinOrderAmount());
         if (request.getMaxDiscountAmount() != null) discount.setMaxDiscountAmount(request.getMaxDiscountAmount());
+        if (request.getMinLeadDays() != null) discount.setMinLeadDays(request.getMinLeadDays());
+        if (request.getMaxLeadDays() != null) discount.setMaxLeadDays(request.getMaxLeadDays());
+        if (request.getStayFrom() != null) discount.setStayFrom(request.getStayFrom());
+        if (request.getStayUntil() != null) discount.setStayUntil(request.getStayUntil());
+        if (request.getMinNights() != null) discount.setMinNights(request.getMinNights());
+        if (request.getMinUserBookings() != null) discount.setMinUserBookings(request.getMinUserBookings());
         if (request.getIsActive() != null) discount.setIsActive(request.getIsActive());
         if (request.getTermsAndConditions() != null) discount.setTermsAndConditions(request.getTermsAndConditions());
 
+        validateDiscountConditions(discount.getMinLeadDays(), discount.getMaxLeadDays(),
+                discount.getStayFrom(), discount.getStayUntil());
+
         // Validate updated values
         if (request.getPercentageValue() != null || request.getFixedAmount() != null) {
             validateDiscountTypeValues(discount);
         }
 
         Discount updatedDiscount = discountRepository.save(discount);
+        discountCatalog.putAfterCommit(updatedDiscount);
         log.info("Discount updated successfully: {}", discountId);
 
         return mapToDiscountResponse(updatedDiscount);
@@ -126,6 +162,11 @@ public class DiscountService {
     public DiscountResponse getDiscountByCode(String code) {
         log.info("Fetching discount by code: {}", code);
 
+        // Reject codes that certainly do not exist without a query
+        if (!discountCodeFilter.mightExist(code)) {
+            throw new ResourceNotFoundException("Discount", "code", code);
+        }
+
         Discount discount = discountRepository.findByCode(code)
                 .orElseThrow(() -> new ResourceNotFoundException("Discount", "code", code));
 
@@ -159,20 +200,13 @@ public class DiscountService {
 
     /**
      * Validate discount code
+     * Served from the in-memory catalog, no database access
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public DiscountResponse validateDiscountCode(String code, BigDecimal orderAmount) {
         log.info("Validating discount code: {} for order amount: {}", code, orderAmount);
 
-        Discount discount = discountRepository.findValidDiscountByCode(code, LocalDateTime.now())
-                .orElseThrow(() -> new InvalidDiscountException("Invalid or expired discount code"));
-
-        // Check minimum order amount
-        if (discount.getMinOrderAmount() != null && orderAmount.compareTo(discount.getMinOrderAmount()) < 0) {
-            throw new InvalidDiscountException(
-                    String.format("Minimum order amount of %s required for this discount", discount.getMinOrderAmount())
-            );
-        }
+        DiscountSnapshot discount = requireValidDiscount(code, orderAmount);
 
         log.info("Discount code validated successfully: {}", code);
 
@@ -190,6 +224,7 @@ public class DiscountService {
 
         discount.setIsActive(false);
         Discount deactivatedDiscount = discountRepository.save(discount);
+        discountCatalog.putAfterCommit(deactivatedDiscount);
 
         log.info("Discount deactivated successfully: {}", discountId);
 
@@ -212,71 +247,133 @@ public class DiscountService {
         }
 
         discountRepository.delete(discount);
+        discountCatalog.removeAfterCommit(discountId);
         log.info("Discount deleted successfully: {}", discountId);
     }
 
     /**
-     * Calculate the discount amount for a given discount code and order amount
+     * Calculate the discount for a set of stays (cart items or a single booking)
+     * The code must be valid for the stays' total, and only the stays meeting the discount's conditions are discounted
      * @param code the discount code
-     * @param orderAmount the order subtotal amount
+     * @param userId the user booking the stays, used by conditions on booking history
+     * @param stays the stays being booked
      * @return the calculated discount amount
-     * @throws InvalidDiscountException if the discount code is invalid
+     * @throws InvalidDiscountException if the code is invalid or applies to none of the stays
      */
-    public BigDecimal calculateDiscount(String code, BigDecimal orderAmount) {
-        // First validate the discount code (throws exception if invalid)
-        validateDiscountCode(code, orderAmount);
-        
-        // Get the actual discount entity
-        Discount discount = discountRepository.findByCode(code)
-                .orElseThrow(() -> new InvalidDiscountException("Discount code not found: " + code));
-        
-        // Double check it's active (validateDiscountCode already checked, but be safe)
-        if (!discount.getIsActive()) {
-            throw new InvalidDiscountException("Discount code is not active: " + code);
-        }
-        
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        
-        // Calculate based on discount type
-        switch (discount.getType()) {
-            case PERCENTAGE:
-            case EARLY_BIRD:
-            case LAST_MINUTE:
-            case SEASONAL:
-            case LOYALTY:
-                // Calculate percentage discount: orderAmount * (percentageValue / 100)
-                discountAmount = orderAmount
-                        .multiply(discount.getPercentageValue())
-                        .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-                break;
-                
-            case FIXED_AMOUNT:
-            case PROMOTIONAL_CODE:
-                // Use fixed amount discount
-                discountAmount = discount.getFixedAmount();
-                break;
-                
-            default:
-                throw new InvalidDiscountException("Unknown discount type: " + discount.getType());
-        }
-        
-        // Apply max discount cap if set
-        if (discount.getMaxDiscountAmount() != null && 
-            discountAmount.compareTo(discount.getMaxDiscountAmount()) > 0) {
-            discountAmount = discount.getMaxDiscountAmount();
-        }
-        
-        // Ensure discount doesn't exceed order amount
-        if (discountAmount.compareTo(orderAmount) > 0) {
-            discountAmount = orderAmount;
-        }
-        
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BigDecimal calculateDiscount(String code, Long userId, List<DiscountContext> stays) {
+        BigDecimal orderAmount = stays.stream()
+                .map(DiscountContext::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Validate against the in-memory catalog (throws exception if invalid)
+        DiscountSnapshot discount = requireValidDiscount(code, orderAmount);
+
+        BigDecimal discountAmount = calculateDiscount(discount, userId, stays);
+
         log.info("Calculated discount: {} for code: {} on amount: {}", discountAmount, code, orderAmount);
         return discountAmount;
     }
 
+    /**
+     * Evaluate an already validated discount's compiled rule against the stays
+     * @throws InvalidDiscountException if the discount applies to none of the stays
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BigDecimal calculateDiscount(DiscountSnapshot discount, Long userId, List<DiscountContext> stays) {
+        DiscountRule rule = discount.rule();
+
+        // Only loyalty-style rules need the user's history, everything else is evaluated in memory
+        if (rule.requiresUserBookingCount()) {
+            long bookingCount = bookingRepository.countByUserIdAndStatusIn(userId, COUNTED_BOOKING_STATUSES);
+            stays = stays.stream()
+                    .map(stay -> stay.withUserBookingCount(bookingCount))
+                    .collect(Collectors.toList());
+        }
+
+        return rule.calculate(stays)
+                .orElseThrow(() -> new InvalidDiscountException("Discount code does not apply to the selected stay"));
+    }
+
+    /**
+     * Find the discount saving the most on the stays
+     * Evaluates every valid discount whose minimum order the stays' total meets, straight from the catalog index
+     * @return the best offer, or empty if no discount applies
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<DiscountOffer> findBestDiscount(Long userId, List<DiscountContext> stays) {
+        BigDecimal orderAmount = stays.stream()
+                .map(DiscountContext::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        List<DiscountSnapshot> candidates = discountCatalog.findApplicable(orderAmount, LocalDateTime.now());
+        Map<Long, Integer> redemptions = findRedemptionCounts(userId, candidates);
+
+        List<DiscountContext> staysWithHistory = null;
+        DiscountOffer best = null;
+
+        for (DiscountSnapshot discount : candidates) {
+            // Codes the user has used up would only fail at checkout
+            if (discount.maxUsagePerUser() != null
+                    && redemptions.getOrDefault(discount.id(), 0) >= discount.maxUsagePerUser()) {
+                continue;
+            }
+
+            DiscountRule rule = discount.rule();
+            List<DiscountContext> evaluated = stays;
+            if (rule.requiresUserBookingCount()) {
+                // Loaded once, and only if some candidate needs it
+                if (staysWithHistory == null) {
+                    long bookingCount = bookingRepository.countByUserIdAndStatusIn(userId, COUNTED_BOOKING_STATUSES);
+                    staysWithHistory = stays.stream()
+                            .map(stay -> stay.withUserBookingCount(bookingCount))
+                            .collect(Collectors.toList());
+                }
+                evaluated = staysWithHistory;
+            }
+
+            Optional<BigDecimal> amount = rule.calculate(evaluated);
+            if (amount.isPresent() && amount.get().signum() > 0
+                    && (best == null || amount.get().compareTo(best.amount()) > 0)) {
+                best = new DiscountOffer(discount, amount.get());
+            }
+        }
+
+        return Optional.ofNullable(best);
+    }
+
     // Helper methods
 
+    /**
+     * The user's redemption counts for the candidates with a per-user limit, in one query
+     */
+    private Map<Long, Integer> findRedemptionCounts(Long userId, List<DiscountSnapshot> candidates) {
+        List<Long> limitedIds = candidates.stream()
+                .filter(discount -> discount.maxUsagePerUser() != null)
+                .map(DiscountSnapshot::id)
+                .collect(Collectors.toList());
+        if (userId == null || limitedIds.isEmpty()) {
+            return Map.of();
+        }
+        return discountRedemptionRepository.findRedemptionCounts(userId, limitedIds).stream()
+                .collect(Collectors.toMap(DiscountRedemptionRepository.UserRedemptionCount::getDiscountId,
+                        DiscountRedemptionRepository.UserRedemptionCount::getRedemptionCount));
+    }
+
+    private DiscountSnapshot requireValidDiscount(String code, BigDecimal orderAmount) {
+        DiscountSnapshot discount = discountCatalog.findValid(code, LocalDateTime.now())
+                .orElseThrow(() -> new InvalidDiscountException("Invalid or expired discount code"));
+
+        // Check minimum order amount
+        if (!discount.meetsMinimumOrder(orderAmount)) {
+            throw new InvalidDiscountException(
+                    String.format("Minimum order amount of %s required for this discount", discount.minOrderAmount())
+            );
+        }
+
+        return discount;
+    }
+
     private void validateDiscountValues(CreateDiscountRequest request) {
         switch (request.getType()) {
             case PERCENTAGE:
@@ -297,6 +394,16 @@ public class DiscountService {
         }
     }
 
+    private void validateDiscountConditions(Integer minLeadDays, Integer maxLeadDays,
+                                            LocalDate stayFrom, LocalDate stayUntil) {
+        if (minLeadDays != null && maxLeadDays != null && minLeadDays > maxLeadDays) {
+            throw new IllegalArgumentException("Min lead days must not exceed max lead days");
+        }
+        if (stayFrom != null && stayUntil != null && stayFrom.isAfter(stayUntil)) {
+            throw new IllegalArgumentException("Stay from date must be before stay until date");
+        }
+    }
+
     private void validateDiscountTypeValues(Discount discount) {
         switch (discount.getType()) {
             case PERCENTAGE:
@@ -333,10 +440,46 @@ public class DiscountService {
                 .maxUsagePerUser(discount.getMaxUsagePerUser())
                 .minOrderAmount(discount.getMinOrderAmount())
                 .maxDiscountAmount(discount.getMaxDiscountAmount())
+                .minLeadDays(discount.getMinLeadDays())
+                .maxLeadDays(discount.getMaxLeadDays())
+                .stayFrom(discount.getStayFrom())
+                .stayUntil(discount.getStayUntil())
+                .minNights(discount.getMinNights())
+                .minUserBookings(discount.getMinUserBookings())
                 .isActive(discount.getIsActive())
                 .termsAndConditions(discount.getTermsAndConditions())
+                .campaign(discount.getCampaign())
                 .createdAt(discount.getCreatedAt())
                 .updatedAt(discount.getUpdatedAt())
                 .build();
     }
+
+    private DiscountResponse mapToDiscountResponse(DiscountSnapshot discount) {
+        return DiscountResponse.builder()
+                .id(discount.id())
+                .code(discount.code())
+                .name(discount.name())
+                .description(discount.description())
+                .type(discount.type())
+                .percentageValue(discount.percentageValue())
+                .fixedAmount(discount.fixedAmount())
+                .validFrom(discount.validFrom())
+                .validUntil(discount.validUntil())
+                .maxUsageCount(discount.maxUsageCount())
+                .currentUsageCount(discount.currentUsageCount())
+                .maxUsagePerUser(discount.maxUsagePerUser())
+                .minOrderAmount(discount.minOrderAmount())
+                .maxDiscountAmount(discount.maxDiscountAmount())
+                .minLeadDays(discount.minLeadDays())
+                .maxLeadDays(discount.maxLeadDays())
+                .stayFrom(discount.stayFrom())
+                .stayUntil(discount.stayUntil())
+                .minNights(discount.minNights())
+                .minUserBookings(discount.minUserBookings())
+                .isActive(discount.active())
+                .termsAndConditions(discount.termsAndConditions())
+                .createdAt(discount.createdAt())
+                .updatedAt(discount.updatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,107 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.model.entity.DiscountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a discount held by DiscountCatalog
+ * Validation and amount calculation run against it without touching the database
+ */
+public record DiscountSnapshot(
+        Long id,
+        String code,
+        String name,
+        String description,
+        DiscountType type,
+        BigDecimal percentageValue,
+        BigDecimal fixedAmount,
+        LocalDateTime validFrom,
+        LocalDateTime validUntil,
+        Integer maxUsageCount,
+        int currentUsageCount,
+        Integer maxUsagePerUser,
+        BigDecimal minOrderAmount,
+        BigDecimal maxDiscountAmount,
+        Integer minLeadDays,
+        Integer maxLeadDays,
+        LocalDate stayFrom,
+        LocalDate stayUntil,
+        Integer minNights,
+        Integer minUserBookings,
+        boolean active,
+        String termsAndConditions,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        DiscountRule rule) {
+
+    public static DiscountSnapshot from(Discount discount) {
+        DiscountRule rule = DiscountRule.compile(
+                discount.getType(),
+                discount.getPercentageValue(),
+                discount.getFixedAmount(),
+                discount.getMaxDiscountAmount(),
+                discount.getValidFrom(),
+                discount.getValidUntil(),
+                discount.getMinLeadDays(),
+                discount.getMaxLeadDays(),
+                discount.getStayFrom(),
+                discount.getStayUntil(),
+                discount.getMinNights(),
+                discount.getMinUserBookings());
+
+        return new DiscountSnapshot(
+                discount.getId(),
+                discount.getCode(),
+                discount.getName(),
+                discount.getDescription(),
+                discount.getType(),
+                discount.getPercentageValue(),
+                discount.getFixedAmount(),
+                discount.getValidFrom(),
+                discount.getValidUntil(),
+                discount.getMaxUsageCount(),
+                discount.getCurrentUsageCount() != null ? discount.getCurrentUsageCount() : 0,
+                discount.getMaxUsagePerUser(),
+                discount.getMinOrderAmount(),
+                discount.getMaxDiscountAmount(),
+                discount.getMinLeadDays(),
+                discount.getMaxLeadDays(),
+                discount.getStayFrom(),
+                discount.getStayUntil(),
+                discount.getMinNights(),
+                discount.getMinUserBookings(),
+                Boolean.TRUE.equals(discount.getIsActive()),
+                discount.getTermsAndConditions(),
+                discount.getCreatedAt(),
+                discount.getUpdatedAt(),
+                rule);
+    }
+
+    /**
+     * Copy with an updated usage count
+     */
+    public DiscountSnapshot withCurrentUsageCount(int usageCount) {
+        return new DiscountSnapshot(id, code, name, description, type, percentageValue, fixedAmount,
+                validFrom, validUntil, maxUsageCount, usageCount, maxUsagePerUser, minOrderAmount,
+                maxDiscountAmount, minLeadDays, maxLeadDays, stayFrom, stayUntil, minNights, minUserBookings,
+                active, termsAndConditions, createdAt, updatedAt, rule);
+    }
+
+    /**
+     * Same rules as DiscountRepository.findValidDiscountByCode
+     */
+    public boolean isValidAt(LocalDateTime now) {
+        return active
+                && (validFrom == null || !validFrom.isAfter(now))
+                && (validUntil == null || !validUntil.isBefore(now))
+                && (maxUsageCount == null || currentUsageCount < maxUsageCount);
+    }
+
+    public boolean meetsMinimumOrder(BigDecimal orderAmount) {
+        return minOrderAmount == null || orderAmount.compareTo(minOrderAmount) >= 0;
+    }
+}
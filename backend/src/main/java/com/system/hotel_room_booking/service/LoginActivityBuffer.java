@@ -0,0 +1,74 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.repository.LoginActivityBatchRepository;
+import com.system.hotel_room_booking.repository.LoginActivityBatchRepository.LoginFailure;
+import com.system.hotel_room_booking.repository.LoginActivityBatchRepository.LoginSuccess;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for login bookkeeping (last login, failed attempts, lock)
+ * Logins only update a map entry per user; a scheduled flush writes everything in two JDBC batches
+ * Only the latest state per user is kept, so a burst of logins costs one row update per user
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginActivityBuffer {
+
+    private final LoginActivityBatchRepository loginActivityBatchRepository;
+
+    private final ConcurrentHashMap<Long, LoginSuccess> successes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LoginFailure> failures = new ConcurrentHashMap<>();
+
+    public void recordSuccess(Long userId, String ip) {
+        // A success clears the failures buffered before it
+        failures.remove(userId);
+        successes.put(userId, new LoginSuccess(LocalDateTime.now(), ip));
+    }
+
+    public void recordFailure(Long userId, int attempts, LocalDateTime lockedUntil) {
+        failures.put(userId, new LoginFailure(attempts, lockedUntil));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-bookkeeping.flush-ms:5000}",
+               initialDelayString = "${auth.login-bookkeeping.flush-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        Map<Long, LoginSuccess> successBatch = drain(successes);
+        Map<Long, LoginFailure> failureBatch = drain(failures);
+        if (successBatch.isEmpty() && failureBatch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Failures last: a failure buffered after a success must win for the attempt counter
+            loginActivityBatchRepository.updateSuccesses(successBatch);
+            loginActivityBatchRepository.updateFailures(failureBatch);
+        } catch (RuntimeException e) {
+            // Bookkeeping only; the lock itself is enforced in memory by LoginAttemptTracker
+            log.error("Failed to flush login activity for {} users", successBatch.size() + failureBatch.size(), e);
+            return;
+        }
+        log.debug("Flushed login activity: {} successes, {} failures", successBatch.size(), failureBatch.size());
+    }
+
+    private static <V> Map<Long, V> drain(ConcurrentHashMap<Long, V> buffer) {
+        Map<Long, V> batch = new HashMap<>();
+        for (Long userId : buffer.keySet()) {
+            V value = buffer.remove(userId);
+            if (value != null) {
+                batch.put(userId, value);
+            }
+        }
+        return batch;
+    }
+}
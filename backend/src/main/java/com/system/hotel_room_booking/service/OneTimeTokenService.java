@@ -0,0 +1,111 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.OneTimeToken;
+import com.system.hotel_room_booking.model.entity.OneTimeTokenPurpose;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.OneTimeTokenRepository;
+import com.system.hotel_room_booking.util.TokenHashUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and resolves the one-time tokens emailed to users
+ * A user has at most one live token per purpose: issuing a new one replaces the previous
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OneTimeTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final OneTimeTokenRepository oneTimeTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${one-time-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    /**
+     * Create a token for the user, replacing any earlier one with the same purpose
+     * @return the token to put in the email link
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String issue(User user, OneTimeTokenPurpose purpose, Duration validity) {
+        oneTimeTokenRepository.deleteByUserIdAndPurpose(user.getId(), purpose);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        oneTimeTokenRepository.save(OneTimeToken.builder()
+            .tokenHash(TokenHashUtil.sha256(token))
+            .purpose(purpose)
+            .user(user)
+            .createdAt(now)
+            .expiresAt(now.plus(validity))
+            .build());
+        return token;
+    }
+
+    /**
+     * Look up a token by its value, expired or not, so callers can tell the two apart
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<OneTimeToken> find(String token, OneTimeTokenPurpose purpose) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        return oneTimeTokenRepository.findByTokenHashAndPurpose(TokenHashUtil.sha256(token), purpose);
+    }
+
+    /**
+     * Use up a token so its link cannot be followed again
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consume(OneTimeToken token) {
+        oneTimeTokenRepository.delete(token);
+    }
+
+    /**
+     * Drop the user's live token for the purpose, e.g. when a pending email change is cancelled
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revoke(Long userId, OneTimeTokenPurpose purpose) {
+        oneTimeTokenRepository.deleteByUserIdAndPurpose(userId, purpose);
+    }
+
+    /**
+     * Delete expired tokens in chunks of their own transaction
+     */
+    @Scheduled(fixedDelayString = "${one-time-token.purge-ms:3600000}",
+               initialDelayString = "${one-time-token.purge-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+
+        long total = 0;
+        int deleted;
+        do {
+            Integer chunk = transactionTemplate.execute(status ->
+                oneTimeTokenRepository.deleteExpired(now, purgeBatchSize));
+            deleted = chunk != null ? chunk : 0;
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired one-time tokens", total);
+        }
+    }
+}
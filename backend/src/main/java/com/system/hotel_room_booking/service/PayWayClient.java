@@ -0,0 +1,99 @@
+package com.system.hotel_room_booking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.system.hotel_room_booking.model.dto.payment.PayWayCheckResult;
+import com.system.hotel_room_booking.util.PayWayHashUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client for ABA PayWay server-to-server APIs
+ * Transport (pooling, timeouts, bulkhead, circuit breaker) is handled by PayWayHttpClient
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayWayClient {
+
+    private static final DateTimeFormatter REQ_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final PayWayHttpClient payWayHttpClient;
+
+    @Value("${payway.http.timeout.check-transaction-ms:3000}")
+    private long checkTimeoutMs;
+
+    @Value("${payway.check-path:/api/payment-gateway/v1/payments/check-transaction-2}")
+    private String paywayCheckPath;
+
+    @Value("${payway.merchant-id}")
+    private String merchantId;
+
+    @Value("${payway.public-key}")
+    private String publicKey;
+
+    /**
+     * Query PayWay for the current status of a transaction
+     */
+    public PayWayCheckResult checkTransaction(String tranId) {
+        String reqTime = LocalDateTime.now().format(REQ_TIME_FORMATTER);
+
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("req_time", reqTime);
+        body.put("merchant_id", merchantId);
+        body.put("tran_id", tranId);
+        body.put("hash", PayWayHashUtil.generateCheckTransactionHash(reqTime, merchantId, tranId, publicKey));
+
+        JsonNode response = payWayHttpClient.postJson(
+            "check-transaction", paywayCheckPath, body, Duration.ofMillis(checkTimeoutMs));
+
+        return parseCheckResponse(tranId, response);
+    }
+
+    /**
+     * Map a check-transaction response to callback status codes
+     * Supports both the v2 envelope (data.payment_status) and the legacy numeric status field
+     */
+    private PayWayCheckResult parseCheckResponse(String tranId, JsonNode root) {
+        JsonNode data = root.path("data");
+
+        Integer status = null;
+        String message = null;
+
+        if (data.hasNonNull("payment_status")) {
+            status = mapPaymentStatus(data.get("payment_status").asText());
+            message = data.get("payment_status").asText();
+        } else if (data.hasNonNull("payment_status_code")) {
+            status = data.get("payment_status_code").asInt();
+        } else if (root.path("status").isNumber()) {
+            status = root.get("status").asInt();
+            message = root.path("description").asText(null);
+        }
+
+        return PayWayCheckResult.builder()
+            .tranId(tranId)
+            .status(status)
+            .paymentOption(data.path("payment_type").asText(null))
+            .message(message)
+            .rawResponse(root.toString())
+            .build();
+    }
+
+    private Integer mapPaymentStatus(String paymentStatus) {
+        return switch (paymentStatus.toUpperCase()) {
+            case "APPROVED" -> 0;
+            // Authorized but not captured yet: not paid until the capture is approved
+            case "PENDING", "PRE-AUTH" -> 1;
+            case "DECLINED" -> 2;
+            case "CANCELLED" -> 3;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.system.hotel_room_booking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.system.hotel_room_booking.exception.PaymentGatewayUnavailableException;
+import com.system.hotel_room_booking.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resilient transport for outbound PayWay calls
+ * Wraps the pooled HTTP client with a bulkhead, a circuit breaker, per-operation timeouts
+ * and latency metrics; payway.http.base-url can point it at a local stub
+ */
+@Service
+@Slf4j
+public class PayWayHttpClient {
+
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    // Timers of each operation, registered on its first call and reused after that
+    private final Map<String, Map<Outcome, Timer>> timers = new ConcurrentHashMap<>();
+
+    private enum Outcome {
+        SUCCESS, ERROR, CLIENT_ERROR, BULKHEAD_FULL, CIRCUIT_OPEN
+    }
+
+    @Value("${payway.http.base-url:${payway.base-url}}")
+    private String baseUrl;
+
+    @Value("${payway.http.bulkhead-wait-ms:100}")
+    private long bulkheadWaitMs;
+
+    @Value("${payway.http.pool-timeout-ms:500}")
+    private long poolTimeoutMs;
+
+    public PayWayHttpClient(CloseableHttpClient payWayHttpClient,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${payway.http.max-concurrent-calls:32}") int maxConcurrentCalls,
+                            @Value("${payway.http.circuit.failure-threshold:5}") int failureThreshold,
+                            @Value("${payway.http.circuit.open-ms:30000}") long openMs) {
+        this.httpClient = payWayHttpClient;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
+
+        Gauge.builder("payway.http.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+            .register(meterRegistry);
+        Gauge.builder("payway.http.client.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+            .description("0 = closed, 1 = open, 2 = half-open")
+            .register(meterRegistry);
+    }
+
+    /**
+     * POST a JSON body to a PayWay path and parse the JSON response
+     *
+     * @param operation Operation name used for metrics and logging
+     * @param path Path relative to the PayWay base URL
+     * @param body Request body, serialized as JSON
+     * @param timeout Response timeout for this operation
+     */
+    public JsonNode postJson(String operation, String path, Object body, Duration timeout) {
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            record(operation, Outcome.BULKHEAD_FULL, 0);
+            throw new PaymentGatewayUnavailableException("Too many concurrent PayWay calls, " + operation + " rejected");
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            record(operation, Outcome.CIRCUIT_OPEN, 0);
+            throw new PaymentGatewayUnavailableException("PayWay circuit is open, " + operation + " rejected");
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            HttpPost request = new HttpPost(baseUrl + path);
+            request.setConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                .setResponseTimeout(Timeout.of(timeout))
+                .build());
+            request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+
+            JsonNode response = httpClient.execute(request, httpResponse -> {
+                String content = httpResponse.getEntity() != null ? EntityUtils.toString(httpResponse.getEntity()) : "";
+                if (httpResponse.getCode() >= 500) {
+                    throw new IOException("PayWay " + operation + " returned HTTP " + httpResponse.getCode());
+                }
+                if (httpResponse.getCode() >= 400) {
+                    throw new IllegalStateException("PayWay " + operation + " rejected with HTTP " + httpResponse.getCode() + ": " + content);
+                }
+                return objectMapper.readTree(content.isEmpty() ? "{}" : content);
+            });
+
+            circuitBreaker.onSuccess();
+            record(operation, Outcome.SUCCESS, System.nanoTime() - startNanos);
+            return response;
+
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            record(operation, Outcome.ERROR, System.nanoTime() - startNanos);
+            throw new RuntimeException("PayWay " + operation + " failed: " + e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            // 4xx means the gateway is up; do not count it against the circuit
+            circuitBreaker.onSuccess();
+            record(operation, Outcome.CLIENT_ERROR, System.nanoTime() - startNanos);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            record(operation, Outcome.ERROR, System.nanoTime() - startNanos);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void record(String operation, Outcome outcome, long elapsedNanos) {
+        timers.computeIfAbsent(operation, this::registerTimers)
+            .get(outcome)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Map<Outcome, Timer> registerTimers(String operation) {
+        Map<Outcome, Timer> byOutcome = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            byOutcome.put(outcome, Timer.builder("payway.http.client.requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        }
+        return byOutcome;
+    }
+}
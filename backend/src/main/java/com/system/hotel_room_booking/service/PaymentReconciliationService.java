@@ -0,0 +1,133 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.dto.payment.PayWayCheckResult;
+import com.system.hotel_room_booking.model.entity.PaymentStatus;
+import com.system.hotel_room_booking.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reconciles unsettled payments against PayWay check-transaction API
+ * Catches callbacks PayWay never delivered; checks run concurrently on virtual threads
+ * with a bounded number of requests in flight
+ * Newest payments are checked first; those still unsettled past the expiry age are marked expired
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationService {
+
+    private static final EnumSet<PaymentStatus> UNSETTLED = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PayWayClient payWayClient;
+
+    @Value("${payway.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payway.reconciliation.min-age-minutes:5}")
+    private long minAgeMinutes;
+
+    // Unsettled payments older than this are expired instead of being checked again
+    @Value("${payway.reconciliation.expire-after-minutes:1440}")
+    private long expireAfterMinutes;
+
+    @Value("${payway.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payway.reconciliation.max-in-flight:32}")
+    private int maxInFlight;
+
+    /**
+     * Periodically check unsettled payments older than the minimum age
+     */
+    @Scheduled(fixedDelayString = "${payway.reconciliation.interval-ms:60000}",
+               initialDelayString = "${payway.reconciliation.initial-delay-ms:30000}")
+    public void reconcilePendingPayments() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minusMinutes(expireAfterMinutes);
+        expireStalePayments(expiredBefore);
+
+        LocalDateTime cutoff = now.minusMinutes(minAgeMinutes);
+        List<String> transactionIds = paymentRepository.findTransactionIdsForReconciliation(
+            UNSETTLED, expiredBefore, cutoff, PageRequest.of(0, batchSize));
+
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+
+        reconcile(transactionIds);
+    }
+
+    /**
+     * Expire payments that stayed unsettled past the expiry age, in chunks of their own transaction
+     * so abandoned payments leave the reconciliation set instead of being checked forever
+     */
+    private void expireStalePayments(LocalDateTime createdBefore) {
+        int total = 0;
+        int expired;
+        do {
+            expired = paymentService.expireStalePayments(createdBefore, batchSize);
+            total += expired;
+        } while (expired == batchSize);
+
+        if (total > 0) {
+            log.info("Expired {} payments unsettled for more than {} minutes", total, expireAfterMinutes);
+        }
+    }
+
+    /**
+     * Check the given transactions and apply any status changes
+     * Blocks until every check has finished or timed out
+     */
+    public void reconcile(List<String> transactionIds) {
+        long startNanos = System.nanoTime();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String transactionId : transactionIds) {
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        if (reconcileOne(transactionId)) {
+                            updated.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        log.warn("Reconciliation failed for transaction {}: {}", transactionId, e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        log.info("Payment reconciliation checked {} transactions: {} updated, {} errors in {} ms",
+            transactionIds.size(), updated.get(), errors.get(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private boolean reconcileOne(String transactionId) {
+        // Remote call happens outside any transaction; only the status update holds a row lock
+        PayWayCheckResult result = payWayClient.checkTransaction(transactionId);
+        return paymentService.applyReconciliationResult(result);
+    }
+}
@@ -4,18 +4,25 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.system.hotel_room_booking.exception.ResourceNotFoundException;
 import com.system.hotel_room_booking.model.dto.payment.*;
 import com.system.hotel_room_booking.model.dto.response.CheckoutResponse;
+import com.system.hotel_room_booking.model.dto.response.PaymentStatusResponse;
 import com.system.hotel_room_booking.model.entity.*;
 import com.system.hotel_room_booking.repository.*;
 import com.system.hotel_room_booking.util.PayWayHashUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,9 +37,10 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final CartRepository cartRepository;
-    private final BookingRepository bookingRepository;
-    private final RoomRepository roomRepository;
+    private final BookingBatchRepository bookingBatchRepository;
+    private final DiscountRedemptionService discountRedemptionService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${payway.base-url}")
     private String paywayBaseUrl;
@@ -58,8 +66,10 @@ public class PaymentService {
     /**
      * Initiate payment with ABA PayWay
      * Creates payment record and returns form data for frontend to submit to PayWay
+     *
+     * @param discount the discount the caller redeems for this payment, or null
      */
-    public CheckoutResponse initiatePayment(Cart cart) {
+    public CheckoutResponse initiatePayment(Cart cart, DiscountSnapshot discount) {
         try {
             // Generate unique transaction ID
             String transactionId = generateTransactionId();
@@ -108,6 +118,7 @@ public class PaymentService {
                 .customerName(user.getFirstName() + " " + user.getLastName())
                 .customerEmail(user.getEmail())
                 .initiatedAt(LocalDateTime.now())
+                .discountId(discount != null ? discount.id() : null)
                 .build();
 
             paymentRepository.save(payment);
@@ -153,10 +164,15 @@ public class PaymentService {
         try {
             log.info("Received PayWay callback: {}", callback);
 
-            // Find payment by transaction ID
-            Payment payment = paymentRepository.findByTransactionId(callback.getTranId())
+            // Find payment by transaction ID (row lock guards against a concurrent reconciliation)
+            Payment payment = paymentRepository.findByTransactionIdForUpdate(callback.getTranId())
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "transactionId", callback.getTranId()));
 
+            if (isSettled(payment)) {
+                log.info("Ignoring callback for already settled payment: {} ({})", payment.getTransactionId(), payment.getStatus());
+                return "Payment already processed";
+            }
+
             // Verify callback hash
             boolean isValidHash = PayWayHashUtil.verifyCallbackHash(
                 callback.getTranId(),
@@ -171,7 +187,9 @@ public class PaymentService {
                 payment.setStatus(PaymentStatus.FAILED);
                 payment.setErrorMessage("Invalid callback signature");
                 payment.setFailedAt(LocalDateTime.now());
+                releaseDiscount(payment);
                 paymentRepository.save(payment);
+                eventPublisher.publishEvent(new PaymentStatusChangedEvent(toStatusResponse(payment)));
                 return "Invalid signature";
             }
 
@@ -185,50 +203,7 @@ public class PaymentService {
             }
 
             // Update payment status based on callback status
-            Integer status = callback.getStatus();
-            if (status != null) {
-                switch (status) {
-                    case 0: // Success
-                        payment.setStatus(PaymentStatus.COMPLETED);
-                        payment.setCompletedAt(LocalDateTime.now());
-                        handleSuccessfulPayment(payment);
-                        log.info("Payment completed successfully: {}", payment.getTransactionId());
-                        return "Payment successful";
-                        
-                    case 1: // Pending
-                        payment.setStatus(PaymentStatus.PROCESSING);
-                        log.info("Payment processing: {}", payment.getTransactionId());
-                        return "Payment processing";
-                        
-                    case 2: // Failed
-                        payment.setStatus(PaymentStatus.FAILED);
-                        payment.setFailedAt(LocalDateTime.now());
-                        payment.setErrorMessage(callback.getMessage());
-                        handleFailedPayment(payment);
-                        log.warn("Payment failed: {}", payment.getTransactionId());
-                        return "Payment failed";
-                        
-                    case 3: // Cancelled
-                        payment.setStatus(PaymentStatus.CANCELLED);
-                        payment.setFailedAt(LocalDateTime.now());
-                        handleCancelledPayment(payment);
-                        log.info("Payment cancelled: {}", payment.getTransactionId());
-                        return "Payment cancelled";
-                        
-                    default:
-                        payment.setStatus(PaymentStatus.FAILED);
-                        payment.setErrorMessage("Unknown status: " + status);
-                        payment.setFailedAt(LocalDateTime.now());
-                        log.warn("Unknown payment status: {} for transaction: {}", status, payment.getTransactionId());
-                        return "Unknown status";
-                }
-            } else {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.setErrorMessage("No status provided in callback");
-                payment.setFailedAt(LocalDateTime.now());
-                paymentRepository.save(payment);
-                return "Invalid callback: no status";
-            }
+            return applyPaymentStatus(payment, callback.getStatus(), callback.getMessage());
 
         } catch (Exception e) {
             log.error("Error handling payment callback", e);
@@ -236,9 +211,120 @@ public class PaymentService {
         }
     }
 
+    /**
+     * Apply a PayWay check-transaction result found by reconciliation
+     * Goes through the same status path as the callback; settled payments are left untouched
+     *
+     * @return true if the payment status changed
+     */
+    public boolean applyReconciliationResult(PayWayCheckResult result) {
+        Payment payment = paymentRepository.findByTransactionIdForUpdate(result.getTranId())
+            .orElseThrow(() -> new ResourceNotFoundException("Payment", "transactionId", result.getTranId()));
+
+        if (isSettled(payment) || result.getStatus() == null) {
+            return false;
+        }
+
+        PaymentStatus previousStatus = payment.getStatus();
+        if (result.getPaymentOption() != null) {
+            payment.setPaymentMethod(result.getPaymentOption());
+        }
+        payment.setCallbackData(result.getRawResponse());
+
+        String outcome = applyPaymentStatus(payment, result.getStatus(), result.getMessage());
+        log.info("Reconciled payment {}: {} -> {} ({})",
+            payment.getTransactionId(), previousStatus, payment.getStatus(), outcome);
+        return payment.getStatus() != previousStatus;
+    }
+
+    /**
+     * Mark up to limit unsettled payments created before the given time as expired and release their carts
+     * @return number of payments expired; fewer than limit means none are left
+     */
+    public int expireStalePayments(LocalDateTime createdBefore, int limit) {
+        List<Payment> stale = paymentRepository.findUnsettledCreatedBefore(
+            EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING), createdBefore, PageRequest.of(0, limit));
+
+        for (Payment payment : stale) {
+            payment.setStatus(PaymentStatus.EXPIRED);
+            payment.setFailedAt(LocalDateTime.now());
+            payment.setErrorMessage("Payment was not settled before it expired");
+            // Same as a failed payment: the cart can be checked out again
+            handleFailedPayment(payment);
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(toStatusResponse(payment)));
+            log.info("Expired unsettled payment: {}", payment.getTransactionId());
+        }
+        return stale.size();
+    }
+
+    /**
+     * Update payment status from a PayWay status code and notify waiting clients
+     * Shared by callback handling and reconciliation
+     */
+    private String applyPaymentStatus(Payment payment, Integer status, String message) {
+        String outcome = updatePaymentStatus(payment, status, message);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(toStatusResponse(payment)));
+        return outcome;
+    }
+
+    private String updatePaymentStatus(Payment payment, Integer status, String message) {
+        if (status == null) {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setErrorMessage("No status provided in callback");
+            payment.setFailedAt(LocalDateTime.now());
+            releaseDiscount(payment);
+            paymentRepository.save(payment);
+            return "Invalid callback: no status";
+        }
+
+        switch (status) {
+            case 0: // Success
+                payment.setStatus(PaymentStatus.COMPLETED);
+                payment.setCompletedAt(LocalDateTime.now());
+                handleSuccessfulPayment(payment);
+                log.info("Payment completed successfully: {}", payment.getTransactionId());
+                return "Payment successful";
+
+            case 1: // Pending
+                payment.setStatus(PaymentStatus.PROCESSING);
+                log.info("Payment processing: {}", payment.getTransactionId());
+                return "Payment processing";
+
+            case 2: // Failed
+                payment.setStatus(PaymentStatus.FAILED);
+                payment.setFailedAt(LocalDateTime.now());
+                payment.setErrorMessage(message);
+                handleFailedPayment(payment);
+                log.warn("Payment failed: {}", payment.getTransactionId());
+                return "Payment failed";
+
+            case 3: // Cancelled
+                payment.setStatus(PaymentStatus.CANCELLED);
+                payment.setFailedAt(LocalDateTime.now());
+                handleCancelledPayment(payment);
+                log.info("Payment cancelled: {}", payment.getTransactionId());
+                return "Payment cancelled";
+
+            default:
+                payment.setStatus(PaymentStatus.FAILED);
+                payment.setErrorMessage("Unknown status: " + status);
+                payment.setFailedAt(LocalDateTime.now());
+                releaseDiscount(payment);
+                log.warn("Unknown payment status: {} for transaction: {}", status, payment.getTransactionId());
+                return "Unknown status";
+        }
+    }
+
+    /**
+     * Whether the payment has reached a final state
+     */
+    private boolean isSettled(Payment payment) {
+        return payment.getStatus() != PaymentStatus.PENDING && payment.getStatus() != PaymentStatus.PROCESSING;
+    }
+
     /**
      * Handle successful payment
-     * Create bookings from cart items and update cart status
+     * Create bookings from cart items in one JDBC batch and update cart status
      */
     private void handleSuccessfulPayment(Payment payment) {
         Cart cart = payment.getCart();
@@ -248,20 +334,28 @@ public class PaymentService {
         }
 
         try {
+            long startNanos = System.nanoTime();
+
             // Update cart status
             cart.setStatus(CartStatus.COMPLETED);
             cart.setCheckoutCompletedAt(LocalDateTime.now());
             cartRepository.save(cart);
 
-            // Create bookings for each cart item
+            // Build bookings for each cart item and write them together
+            List<Booking> bookings = new ArrayList<>(cart.getItems().size());
             for (CartItem item : cart.getItems()) {
-                createBookingFromCartItem(item, payment);
+                bookings.add(createBookingFromCartItem(item, payment));
             }
+            bookingBatchRepository.insertPaidBookings(payment, bookings);
 
-            log.info("Successfully created bookings for cart: {}", cart.getId());
+            log.info("Successfully created {} bookings for cart: {} in {} ms",
+                bookings.size(), cart.getId(), (System.nanoTime() - startNanos) / 1_000_000);
 
         } catch (Exception e) {
             log.error("Error handling successful payment for cart: {}", cart.getId(), e);
+            // The batch insert goes through JDBC, and the callback handler catches this exception,
+            // so mark the transaction explicitly or the payment and cart would commit as completed
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             throw new RuntimeException("Failed to process successful payment", e);
         }
     }
@@ -269,11 +363,9 @@ public class PaymentService {
     /**
      * Create booking from cart item
      */
-    private void createBookingFromCartItem(CartItem item, Payment payment) {
-        String confirmationNumber = generateConfirmationNumber();
-        
-        Booking booking = Booking.builder()
-            .confirmationNumber(confirmationNumber)
+    private Booking createBookingFromCartItem(CartItem item, Payment payment) {
+        return Booking.builder()
+            .confirmationNumber(generateConfirmationNumber())
             .user(payment.getUser())
             .room(item.getRoom())
             .status(BookingStatus.CONFIRMED)
@@ -286,19 +378,6 @@ public class PaymentService {
             .transactionId(payment.getTransactionId())
             .paidAt(payment.getCompletedAt())
             .build();
-
-        bookingRepository.save(booking);
-
-        // Update payment with booking reference
-        payment.setBooking(booking);
-        paymentRepository.save(payment);
-
-        // Update room status
-        Room room = item.getRoom();
-        room.setStatus(RoomStatus.RESERVED);
-        roomRepository.save(room);
-
-        log.info("Created booking: {} for room: {}", confirmationNumber, room.getRoomNumber());
     }
 
     /**
@@ -310,6 +389,7 @@ public class PaymentService {
             cart.setStatus(CartStatus.ACTIVE); // Reset cart to active
             cartRepository.save(cart);
         }
+        releaseDiscount(payment);
         paymentRepository.save(payment);
     }
 
@@ -322,9 +402,22 @@ public class PaymentService {
             cart.setStatus(CartStatus.CANCELLED);
             cartRepository.save(cart);
         }
+        releaseDiscount(payment);
         paymentRepository.save(payment);
     }
 
+    /**
+     * Give back the discount use reserved at checkout for a payment that will not complete
+     * Clears the reference, so a payment releases its discount at most once
+     */
+    private void releaseDiscount(Payment payment) {
+        if (payment.getDiscountId() == null) {
+            return;
+        }
+        discountRedemptionService.release(payment.getDiscountId(), payment.getUser().getId());
+        payment.setDiscountId(null);
+    }
+
     /**
      * Generate unique transaction ID
      * Format: TXN-{timestamp}-{random}
@@ -360,6 +453,26 @@ public class PaymentService {
             .orElseThrow(() -> new ResourceNotFoundException("Payment", "transactionId", transactionId));
     }
 
+    /**
+     * Get payment status snapshot by transaction ID
+     */
+    @Transactional(readOnly = true)
+    public PaymentStatusResponse getPaymentStatus(String transactionId) {
+        return toStatusResponse(getPaymentByTransactionId(transactionId));
+    }
+
+    private PaymentStatusResponse toStatusResponse(Payment payment) {
+        return PaymentStatusResponse.builder()
+            .transactionId(payment.getTransactionId())
+            .status(payment.getStatus().toString())
+            .amount(payment.getAmount())
+            .currency(payment.getCurrency())
+            .paymentMethod(payment.getPaymentMethod() != null ? payment.getPaymentMethod() : "N/A")
+            .initiatedAt(payment.getInitiatedAt() != null ? payment.getInitiatedAt().toString() : null)
+            .completedAt(payment.getCompletedAt() != null ? payment.getCompletedAt().toString() : null)
+            .build();
+    }
+
     // Legacy methods for backward compatibility
     public String handleReturn(String tranId, Integer status, String hash) {
         AbaPayWayCallbackRequest callback = AbaPayWayCallbackRequest.builder()
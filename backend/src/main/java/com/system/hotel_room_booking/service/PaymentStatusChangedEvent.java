@@ -0,0 +1,10 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.dto.response.PaymentStatusResponse;
+
+/**
+ * Published by PaymentService when a payment's status changes
+ * Carries the status snapshot so waiting clients are answered without a DB lookup
+ */
+public record PaymentStatusChangedEvent(PaymentStatusResponse status) {
+}
@@ -0,0 +1,154 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.ServiceBusyException;
+import com.system.hotel_room_booking.model.dto.response.PaymentStatusResponse;
+import com.system.hotel_room_booking.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory registry of clients long-polling for a payment status change
+ * Waiting requests are parked as async servlet requests (no thread per client)
+ * and completed when PaymentService publishes a status change for their transaction
+ * Changes applied on another instance publish nothing here, so the waited-on payments are also polled
+ * from the database, and a wait that times out answers with the status read from the database
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStatusNotifier {
+
+    private static final int POLL_CHUNK_SIZE = 500;
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    @Value("${payway.status-wait.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${payway.status-wait.max-waiters:10000}")
+    private int maxWaiters;
+
+    /**
+     * A parked client and the status it already knows
+     */
+    private record Waiter(DeferredResult<PaymentStatusResponse> result, String knownStatus) {
+
+        boolean isOutdatedBy(String status) {
+            return knownStatus == null || !knownStatus.equalsIgnoreCase(status);
+        }
+    }
+
+    /**
+     * Wait until the payment status differs from the status the client already knows
+     * Completes immediately if it already differs, or with the current status on timeout
+     *
+     * @throws ServiceBusyException if too many clients are already waiting; the client should poll instead
+     */
+    public DeferredResult<PaymentStatusResponse> awaitStatusChange(String transactionId, String knownStatus) {
+        if (waiterCount.get() >= maxWaiters) {
+            throw new ServiceBusyException("Too many clients waiting for payment status, please poll instead");
+        }
+
+        DeferredResult<PaymentStatusResponse> result = new DeferredResult<>(timeoutMs);
+        Waiter waiter = new Waiter(result, knownStatus);
+
+        // Subscribe before reading the current status so a change in between is not missed
+        register(transactionId, waiter);
+        result.onCompletion(() -> unregister(transactionId, waiter));
+        result.onTimeout(() -> result.setResult(paymentService.getPaymentStatus(transactionId)));
+
+        try {
+            PaymentStatusResponse current = paymentService.getPaymentStatus(transactionId);
+            if (waiter.isOutdatedBy(current.getStatus())) {
+                result.setResult(current);
+            }
+        } catch (RuntimeException e) {
+            unregister(transactionId, waiter);
+            throw e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Complete all clients waiting on the payment once the status change is committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        Set<Waiter> subscribers = waiters.get(event.status().getTransactionId());
+        if (subscribers == null) {
+            return;
+        }
+
+        // Completed results unregister themselves through onCompletion
+        for (Waiter subscriber : subscribers) {
+            subscriber.result().setResult(event.status());
+        }
+        log.debug("Notified {} waiting clients of payment {} status {}",
+            subscribers.size(), event.status().getTransactionId(), event.status().getStatus());
+    }
+
+    /**
+     * Complete clients whose payment changed status on another instance
+     */
+    @Scheduled(fixedDelayString = "${payway.status-wait.poll-ms:2000}",
+               initialDelayString = "${payway.status-wait.poll-ms:2000}")
+    public void pollWaitedPayments() {
+        List<String> transactionIds = new ArrayList<>(waiters.keySet());
+        for (int from = 0; from < transactionIds.size(); from += POLL_CHUNK_SIZE) {
+            List<String> chunk = transactionIds.subList(from, Math.min(from + POLL_CHUNK_SIZE, transactionIds.size()));
+            for (PaymentRepository.TransactionStatus row : paymentRepository.findStatuses(chunk)) {
+                notifyIfChanged(row.getTransactionId(), row.getStatus().name());
+            }
+        }
+    }
+
+    private void notifyIfChanged(String transactionId, String status) {
+        Set<Waiter> subscribers = waiters.get(transactionId);
+        if (subscribers == null || subscribers.stream().noneMatch(waiter -> waiter.isOutdatedBy(status))) {
+            return;
+        }
+
+        PaymentStatusResponse current = paymentService.getPaymentStatus(transactionId);
+        for (Waiter subscriber : subscribers) {
+            if (subscriber.isOutdatedBy(current.getStatus())) {
+                subscriber.result().setResult(current);
+            }
+        }
+    }
+
+    private void register(String transactionId, Waiter waiter) {
+        waiters.compute(transactionId, (id, set) -> {
+            Set<Waiter> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(waiter);
+            return subscribers;
+        });
+        waiterCount.incrementAndGet();
+    }
+
+    private void unregister(String transactionId, Waiter waiter) {
+        waiters.computeIfPresent(transactionId, (id, set) -> {
+            if (set.remove(waiter)) {
+                waiterCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.InvalidRefreshTokenException;
+import com.system.hotel_room_booking.model.entity.RefreshToken;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.RefreshTokenRepository;
+import com.system.hotel_room_booking.security.JwtTokenProvider;
+import com.system.hotel_room_booking.security.TokenVersionService;
+import com.system.hotel_room_booking.util.TokenHashUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque refresh tokens stored as SHA-256 hashes, looked up through a unique index
+ * Every refresh rotates the token; presenting a rotated token again revokes its whole family
+ * (every token descending from the same login) and the user's access tokens
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenVersionService tokenVersionService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Two tabs refreshing at the same moment both present the same token; the later one is not theft
+    @Value("${jwt.refresh-reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    @Value("${jwt.refresh-purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${jwt.refresh-revoked-retention-ms:86400000}")
+    private long revokedRetentionMs;
+
+    /**
+     * A rotated refresh token and the user it belongs to
+     */
+    public record Rotation(String token, User user) {
+    }
+
+    /**
+     * Issue a refresh token for a new login
+     * @return the token to hand to the client
+     */
+    @Transactional
+    public String issue(User user, HttpServletRequest request) {
+        // A random id of the same shape as a token starts a new family
+        return store(user, generateToken(), request);
+    }
+
+    /**
+     * Exchange a refresh token for a new one of the same family
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or already rotated
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token, HttpServletRequest request) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(TokenHashUtil.sha256(token))
+            .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.getRotatedAt() != null) {
+            if (current.getRotatedAt().plus(Duration.ofMillis(reuseGraceMs)).isAfter(now)) {
+                throw new InvalidRefreshTokenException("Refresh token has already been used");
+            }
+            handleReuse(current, now);
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+
+        if (current.getRevokedAt() != null) {
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        current.setRevokedAt(now);
+        current.setRotatedAt(now);
+        String next = store(current.getUser(), current.getFamilyId(), request);
+        return new Rotation(next, current.getUser());
+    }
+
+    /**
+     * Revoke a single refresh token, on logout
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.revokeByTokenHash(TokenHashUtil.sha256(token), LocalDateTime.now());
+    }
+
+    /**
+     * Delete expired tokens, and revoked ones past the retention period, in chunks of their own transaction
+     * so the purge never holds many row locks at once
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-ms:3600000}",
+               initialDelayString = "${jwt.refresh-purge-ms:3600000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime revokedBefore = now.minus(Duration.ofMillis(revokedRetentionMs));
+
+        long total = 0;
+        int deleted;
+        do {
+            Integer chunk = transactionTemplate.execute(status ->
+                refreshTokenRepository.deletePurgeable(now, revokedBefore, purgeBatchSize));
+            deleted = chunk != null ? chunk : 0;
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired or revoked refresh tokens", total);
+        }
+    }
+
+    private void handleReuse(RefreshToken reused, LocalDateTime now) {
+        Long userId = reused.getUser().getId();
+        int revoked = refreshTokenRepository.revokeFamily(reused.getFamilyId(), now);
+        tokenVersionService.revokeAll(userId);
+        log.warn("Rotated refresh token reused for user {}; revoked {} tokens of its family and all access tokens",
+            userId, revoked);
+    }
+
+    private String store(User user, String familyId, HttpServletRequest request) {
+        String token = generateToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        RefreshToken refreshToken = RefreshToken.builder()
+            .user(user)
+            .tokenHash(TokenHashUtil.sha256(token))
+            .familyId(familyId)
+            .createdAt(now)
+            .expiresAt(now.plus(Duration.ofMillis(tokenProvider.getJwtRefreshExpirationMs())))
+            .ipAddress(request != null ? getClientIp(request) : null)
+            .userAgent(request != null ? truncate(request.getHeader("User-Agent"), 255) : null)
+            .build();
+
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String getClientIp(HttpServletRequest request) {
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if (xfHeader == null) {
+            return request.getRemoteAddr();
+        }
+        return xfHeader.split(",")[0];
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
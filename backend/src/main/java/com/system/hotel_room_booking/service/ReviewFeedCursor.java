@@ -0,0 +1,49 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.dto.request.ReviewFeedSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in the review feed: the sort keys of the last review returned
+ * Encoded as an opaque URL-safe token; the sort is part of it so a cursor cannot be reused with another ordering
+ */
+record ReviewFeedCursor(ReviewFeedSort sort, int rating, LocalDateTime timestamp, long id) {
+
+    // Sorts before every real review in each ordering (DATETIME's upper bound)
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    static ReviewFeedCursor first(ReviewFeedSort sort) {
+        return new ReviewFeedCursor(sort, Integer.MAX_VALUE, MAX_TIMESTAMP, Long.MAX_VALUE);
+    }
+
+    String encode() {
+        String raw = sort.name() + "|" + rating + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or belongs to another ordering
+     */
+    static ReviewFeedCursor decode(String token, ReviewFeedSort expectedSort) {
+        ReviewFeedCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            cursor = new ReviewFeedCursor(
+                    ReviewFeedSort.valueOf(parts[0]),
+                    Integer.parseInt(parts[1]),
+                    LocalDateTime.parse(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        if (cursor.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not match sort " + expectedSort);
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,372 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.Review;
+import com.system.hotel_room_booking.repository.ReviewRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over published review comments
+ * Maps each term to the ids of the reviews containing it; updated by ReviewService as reviews change,
+ * caught up from the database periodically (other instances' writes) and snapshotted to local disk
+ * so a restart only has to load the file and index what changed since it was written.
+ * Hits are re-checked against the database when loaded, so a stale entry can only cost a missing result
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewSearchIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x52565849; // "RVXI"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "was", "were", "for", "with", "that", "this", "have", "had", "but", "not",
+            "are", "our", "you", "very", "they", "there", "from", "all", "its", "it", "is", "in", "of",
+            "to", "we", "on", "at", "be", "so", "an", "as", "or", "my", "me");
+
+    private final ReviewRepository reviewRepository;
+
+    @Value("${review.search.snapshot-path:data/review-search-index.bin}")
+    private String snapshotPath;
+
+    /** A review as indexed: its room and the distinct terms of its comment */
+    private record IndexedReview(long roomId, String[] terms) {
+    }
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, IndexedReview> reviews = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile LocalDateTime indexedUntil;
+    private volatile boolean dirty;
+
+    /**
+     * Ids of the reviews whose comment contains every term of the query, newest first
+     * @param roomId restrict to one room, or null for the whole hotel
+     */
+    public List<Long> search(String query, Long roomId, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Intersect starting from the rarest term
+            List<Set<Long>> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Set<Long> ids = postings.get(term);
+                if (ids == null) {
+                    return List.of();
+                }
+                matches.add(ids);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+
+            long[] hits = new long[matches.get(0).size()];
+            int count = 0;
+            for (Long id : matches.get(0)) {
+                if (roomId != null && reviews.get(id).roomId() != roomId) {
+                    continue;
+                }
+                boolean inAll = true;
+                for (int i = 1; i < matches.size() && inAll; i++) {
+                    inAll = matches.get(i).contains(id);
+                }
+                if (inAll) {
+                    hits[count++] = id;
+                }
+            }
+
+            // Ids grow with creation time, so the largest are the newest
+            Arrays.sort(hits, 0, count);
+            List<Long> result = new ArrayList<>(Math.min(limit, count));
+            for (int i = count - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(hits[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)index the review once the current transaction commits, or drop it if it is not published
+     */
+    public void updateAfterCommit(Review review) {
+        long id = review.getId();
+        long roomId = review.getRoom().getId();
+        String comment = Boolean.TRUE.equals(review.getIsPublished()) ? review.getComment() : null;
+        runAfterCommit(() -> put(id, roomId, comment));
+    }
+
+    /**
+     * Drop the review from the index once the current transaction commits
+     */
+    public void removeAfterCommit(Long reviewId) {
+        runAfterCommit(() -> remove(reviewId));
+    }
+
+    /**
+     * Drop reviews that turned out to be deleted or unpublished when a search loaded them
+     * Catches deletions made by other instances, which the periodic catch-up cannot see
+     */
+    public void evict(Collection<Long> reviewIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : reviewIds) {
+                removeLocked(id);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Load the snapshot if there is one, otherwise index every published review
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime snapshotTime = loadSnapshot();
+        if (snapshotTime != null) {
+            indexedUntil = snapshotTime;
+            catchUp();
+        } else {
+            List<Object[]> rows = reviewRepository.findSearchableReviews();
+            for (Object[] row : rows) {
+                put((Long) row[0], (Long) row[1], (String) row[2]);
+            }
+            indexedUntil = start;
+            dirty = true;
+            log.info("Review search index built from {} reviews", rows.size());
+        }
+    }
+
+    /**
+     * Index reviews changed since the last pass, including changes made by other instances
+     */
+    @Scheduled(fixedDelayString = "${review.search.refresh-ms:60000}",
+               initialDelayString = "${review.search.refresh-ms:60000}")
+    public void catchUp() {
+        LocalDateTime since = indexedUntil;
+        if (since == null) {
+            return;
+        }
+        // Overlap the previous pass: re-indexing a review is idempotent, missing one is not
+        LocalDateTime start = LocalDateTime.now();
+        List<Object[]> rows = reviewRepository.findReviewsUpdatedSince(since.minusMinutes(1));
+        for (Object[] row : rows) {
+            boolean published = Boolean.TRUE.equals(row[3]);
+            put((Long) row[0], (Long) row[1], published ? (String) row[2] : null);
+        }
+        indexedUntil = start;
+        if (!rows.isEmpty()) {
+            log.debug("Review search index caught up {} reviews", rows.size());
+        }
+    }
+
+    /**
+     * Write the index to local disk if it changed since the last snapshot
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${review.search.snapshot-ms:300000}",
+               initialDelayString = "${review.search.snapshot-ms:300000}")
+    public void snapshot() {
+        LocalDateTime snapshotTime = indexedUntil;
+        if (!dirty || snapshotTime == null) {
+            return;
+        }
+
+        Path target = Paths.get(snapshotPath);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeUTF(snapshotTime.toString());
+                out.writeInt(reviews.size());
+                for (Map.Entry<Long, IndexedReview> entry : reviews.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeLong(entry.getValue().roomId());
+                    out.writeInt(entry.getValue().terms().length);
+                    for (String term : entry.getValue().terms()) {
+                        out.writeUTF(term);
+                    }
+                }
+            }
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not write review search snapshot to {}: {}", target, e.getMessage());
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            // Readers of the file only ever see a complete snapshot
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Review search snapshot written to {}", target);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Could not replace review search snapshot {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Split text into lowercase letter/digit terms, without stop words and one-letter terms
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                    if (!STOP_WORDS.contains(term)) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private void put(long id, long roomId, String comment) {
+        String[] terms = tokenize(comment).toArray(new String[0]);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (terms.length > 0) {
+                reviews.put(id, new IndexedReview(roomId, terms));
+                for (String term : terms) {
+                    postings.computeIfAbsent(term, key -> new HashSet<>()).add(id);
+                }
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        IndexedReview previous = reviews.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the time the loaded snapshot was indexed up to, or null if there is no usable snapshot
+     */
+    private LocalDateTime loadSnapshot() {
+        Path source = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(source)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring review search snapshot {} with unknown format", source);
+                return null;
+            }
+            LocalDateTime snapshotTime = LocalDateTime.parse(in.readUTF());
+            int count = in.readInt();
+
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    long id = in.readLong();
+                    long roomId = in.readLong();
+                    String[] terms = new String[in.readInt()];
+                    for (int t = 0; t < terms.length; t++) {
+                        terms[t] = in.readUTF();
+                    }
+                    reviews.put(id, new IndexedReview(roomId, terms));
+                    for (String term : terms) {
+                        postings.computeIfAbsent(term, key -> new HashSet<>()).add(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Review search index loaded {} reviews from snapshot {}", count, source);
+            return snapshotTime;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read review search snapshot {}, rebuilding: {}", source, e.getMessage());
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                reviews.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return null;
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
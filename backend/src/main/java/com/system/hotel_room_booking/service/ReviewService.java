@@ -2,7 +2,10 @@ package com.system.hotel_room_booking.service;
 
 import com.system.hotel_room_booking.exception.ResourceNotFoundException;
 import com.system.hotel_room_booking.model.dto.request.CreateReviewRequest;
+import com.system.hotel_room_booking.model.dto.request.ReviewFeedSort;
+import com.system.hotel_room_booking.model.dto.response.ReviewFeedResponse;
 import com.system.hotel_room_booking.model.dto.response.ReviewResponse;
+import com.system.hotel_room_booking.model.dto.response.RoomRatingSummaryResponse;
 import com.system.hotel_room_booking.model.dto.response.RoomSummaryResponse;
 import com.system.hotel_room_booking.model.dto.response.UserSummaryResponse;
 import com.system.hotel_room_booking.model.entity.*;
@@ -13,6 +16,8 @@ import com.system.hotel_room_booking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -30,6 +35,10 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final RoomRatingService roomRatingService;
+    private final ReviewSearchIndex reviewSearchIndex;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     /**
      * Get the currently authenticated user
@@ -85,6 +94,10 @@ public class ReviewService {
                 .build();
 
         Review savedReview = reviewRepository.save(review);
+        if (savedReview.getIsPublished()) {
+            roomRatingService.reviewPublished(savedReview);
+        }
+        reviewSearchIndex.updateAfterCommit(savedReview);
         log.info("Review created successfully for booking: {}", request.getBookingId());
 
         return mapToReviewResponse(savedReview);
@@ -115,6 +128,82 @@ public class ReviewService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * Get one page of a room's published reviews
+     * Keyset pagination: the cursor holds the sort keys of the previous page's last review,
+     * so every page costs the same index range scan however deep the reader goes
+     */
+    @Transactional(readOnly = true)
+    public ReviewFeedResponse getRoomReviewFeed(Long roomId, ReviewFeedSort sort, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ReviewFeedCursor after = cursor == null || cursor.isBlank()
+                ? ReviewFeedCursor.first(sort)
+                : ReviewFeedCursor.decode(cursor, sort);
+
+        // One extra row tells whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Review> reviews = switch (sort) {
+            case RECENT -> reviewRepository.findFeedByRecency(roomId, after.timestamp(), after.id(), limit);
+            case RATING -> reviewRepository.findFeedByRating(roomId, after.rating(), after.timestamp(), after.id(), limit);
+            case WITH_RESPONSE -> reviewRepository.findFeedWithResponse(roomId, after.timestamp(), after.id(), limit);
+        };
+
+        boolean hasMore = reviews.size() > pageSize;
+        if (hasMore) {
+            reviews = reviews.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Review last = reviews.get(reviews.size() - 1);
+            LocalDateTime timestamp = sort == ReviewFeedSort.WITH_RESPONSE ? last.getRespondedAt() : last.getCreatedAt();
+            nextCursor = new ReviewFeedCursor(sort, last.getOverallRating(), timestamp, last.getId()).encode();
+        }
+
+        return ReviewFeedResponse.builder()
+                .reviews(reviews.stream()
+                        .map(this::mapToReviewResponse)
+                        .collect(java.util.stream.Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Search published reviews by keywords in their comments, newest first
+     * Matching runs against the in-memory index; only the hits are loaded from the database
+     * @param roomId restrict to one room, or null to search the whole hotel
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewResponse> searchReviews(String query, Long roomId, int limit) {
+        log.info("Searching reviews for '{}' in room: {}", query, roomId);
+
+        List<Long> ids = reviewSearchIndex.search(query, roomId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Review> found = new HashMap<>();
+        for (Review review : reviewRepository.findPublishedByIdIn(ids)) {
+            found.put(review.getId(), review);
+        }
+
+        List<ReviewResponse> results = new ArrayList<>(found.size());
+        List<Long> stale = new ArrayList<>();
+        for (Long id : ids) {
+            Review review = found.get(id);
+            if (review != null) {
+                results.add(mapToReviewResponse(review));
+            } else {
+                stale.add(id);
+            }
+        }
+        if (!stale.isEmpty()) {
+            reviewSearchIndex.evict(stale);
+        }
+        return results;
+    }
+
     /**
      * Get reviews by current user
      */
@@ -129,20 +218,14 @@ public class ReviewService {
     }
 
     /**
-     * Get average ratings for a room
+     * Get rating summary for a room
+     * Served from the incrementally maintained summary (cached), no aggregate query
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getRoomRatings(Long roomId) {
-        log.info("Calculating ratings for room: {}", roomId);
+    public RoomRatingSummaryResponse getRoomRatings(Long roomId) {
+        log.info("Fetching ratings for room: {}", roomId);
 
-        Double avgOverallRating = reviewRepository.getAverageRatingForRoom(roomId);
-        Long reviewCount = reviewRepository.countPublishedReviewsByRoomId(roomId);
-
-        Map<String, Object> ratings = new HashMap<>();
-        ratings.put("averageRating", avgOverallRating != null ? avgOverallRating : 0.0);
-        ratings.put("reviewCount", reviewCount);
-
-        return ratings;
+        return roomRatingService.getRoomRating(roomId);
     }
 
     /**
@@ -169,15 +252,24 @@ public class ReviewService {
     public ReviewResponse togglePublishStatus(Long reviewId, boolean published) {
         log.info("Toggling publish status for review: {}", reviewId);
 
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", "id", reviewId));
 
+        boolean wasPublished = Boolean.TRUE.equals(review.getIsPublished());
         review.setIsPublished(published);
         if (published && review.getPublishedAt() == null) {
             review.setPublishedAt(LocalDateTime.now());
         }
 
         Review updatedReview = reviewRepository.save(review);
+
+        // Keep the room's rating summary in step with what is visible
+        if (published && !wasPublished) {
+            roomRatingService.reviewPublished(updatedReview);
+        } else if (!published && wasPublished) {
+            roomRatingService.reviewUnpublished(updatedReview);
+        }
+        reviewSearchIndex.updateAfterCommit(updatedReview);
         log.info("Review publish status updated: {}", reviewId);
 
         return mapToReviewResponse(updatedReview);
@@ -190,7 +282,7 @@ public class ReviewService {
         log.info("Deleting review: {}", reviewId);
         User user = getCurrentUser();
 
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", "id", reviewId));
 
         // Validate ownership
@@ -198,7 +290,11 @@ public class ReviewService {
             throw new IllegalArgumentException("You can only delete your own reviews");
         }
 
+        if (Boolean.TRUE.equals(review.getIsPublished())) {
+            roomRatingService.reviewUnpublished(review);
+        }
         reviewRepository.delete(review);
+        reviewSearchIndex.removeAfterCommit(reviewId);
         log.info("Review deleted successfully: {}", reviewId);
     }
 
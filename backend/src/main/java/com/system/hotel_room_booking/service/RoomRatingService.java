@@ -0,0 +1,190 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.dto.response.RoomRatingSummaryResponse;
+import com.system.hotel_room_booking.model.entity.Review;
+import com.system.hotel_room_booking.model.entity.RoomRatingSummary;
+import com.system.hotel_room_booking.repository.RoomRatingSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Room rating aggregates backed by room_rating_summary
+ * ReviewService reports every change to the set of published reviews, the totals are adjusted with one upsert
+ * and reads are served from the roomRatings cache, evicted once the change commits
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomRatingService {
+
+    public static final String CACHE_NAME = "roomRatings";
+
+    private final RoomRatingSummaryRepository roomRatingSummaryRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Rating summary of a room, with zero counts if it has no published reviews
+     */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#roomId")
+    @Transactional(readOnly = true)
+    public RoomRatingSummaryResponse getRoomRating(Long roomId) {
+        return roomRatingSummaryRepository.findById(roomId)
+                .map(this::mapToResponse)
+                .orElseGet(() -> emptySummary(roomId));
+    }
+
+    /**
+     * Rating summaries of several rooms, for listings
+     * Cached rooms are served from the cache, the rest with one query and cached for later
+     * @return a summary for every requested room, zero counts for rooms without published reviews
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RoomRatingSummaryResponse> getRoomRatings(Collection<Long> roomIds) {
+        Map<Long, RoomRatingSummaryResponse> ratings = new HashMap<>();
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        List<Long> misses = new ArrayList<>();
+
+        for (Long roomId : roomIds) {
+            RoomRatingSummaryResponse cached = cache != null ? cache.get(roomId, RoomRatingSummaryResponse.class) : null;
+            if (cached != null) {
+                ratings.put(roomId, cached);
+            } else {
+                misses.add(roomId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (RoomRatingSummary summary : roomRatingSummaryRepository.findAllById(misses)) {
+                ratings.put(summary.getRoomId(), mapToResponse(summary));
+            }
+            for (Long roomId : misses) {
+                RoomRatingSummaryResponse rating = ratings.computeIfAbsent(roomId, this::emptySummary);
+                if (cache != null) {
+                    cache.put(roomId, rating);
+                }
+            }
+        }
+
+        return ratings;
+    }
+
+    /**
+     * Count a review that became visible (created published, or published later)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewPublished(Review review) {
+        applyDelta(review, 1);
+    }
+
+    /**
+     * Stop counting a review that is no longer visible (unpublished or deleted while published)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewUnpublished(Review review) {
+        applyDelta(review, -1);
+    }
+
+    /**
+     * Fill the summary table on first start, for reviews written before it existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (roomRatingSummaryRepository.count() == 0) {
+            int affectedRows = roomRatingSummaryRepository.rebuildAll(LocalDateTime.now());
+            // Affected rows count an overwritten summary twice, so count the rooms themselves
+            log.info("Backfilled rating summaries for {} rooms ({} rows affected)",
+                roomRatingSummaryRepository.count(), affectedRows);
+        }
+    }
+
+    private void applyDelta(Review review, int delta) {
+        Long roomId = review.getRoom().getId();
+        roomRatingSummaryRepository.applyDelta(roomId, delta,
+                review.getOverallRating(),
+                review.getCleanlinessRating(),
+                review.getComfortRating(),
+                review.getServiceRating(),
+                review.getValueForMoneyRating(),
+                review.getLocationRating(),
+                LocalDateTime.now());
+        evictAfterCommit(roomId);
+    }
+
+    private void evictAfterCommit(Long roomId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        // Evicting before commit would let a concurrent read cache the old totals again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(roomId);
+            }
+        });
+    }
+
+    private RoomRatingSummaryResponse mapToResponse(RoomRatingSummary summary) {
+        long count = summary.getReviewCount();
+        if (count <= 0) {
+            return emptySummary(summary.getRoomId());
+        }
+
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        distribution.put(1, summary.getRating1Count());
+        distribution.put(2, summary.getRating2Count());
+        distribution.put(3, summary.getRating3Count());
+        distribution.put(4, summary.getRating4Count());
+        distribution.put(5, summary.getRating5Count());
+
+        return RoomRatingSummaryResponse.builder()
+                .roomId(summary.getRoomId())
+                .reviewCount(count)
+                .averageRating(average(summary.getOverallSum(), count))
+                .averageCleanliness(average(summary.getCleanlinessSum(), count))
+                .averageComfort(average(summary.getComfortSum(), count))
+                .averageService(average(summary.getServiceSum(), count))
+                .averageValueForMoney(average(summary.getValueForMoneySum(), count))
+                .averageLocation(average(summary.getLocationSum(), count))
+                .ratingDistribution(distribution)
+                .build();
+    }
+
+    private RoomRatingSummaryResponse emptySummary(Long roomId) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int rating = 1; rating <= 5; rating++) {
+            distribution.put(rating, 0L);
+        }
+
+        return RoomRatingSummaryResponse.builder()
+                .roomId(roomId)
+                .reviewCount(0L)
+                .averageRating(0.0)
+                .averageCleanliness(0.0)
+                .averageComfort(0.0)
+                .averageService(0.0)
+                .averageValueForMoney(0.0)
+                .averageLocation(0.0)
+                .ratingDistribution(distribution)
+                .build();
+    }
+
+    // Rounded to two decimals
+    private static double average(long sum, long count) {
+        return Math.round(sum * 100.0 / count) / 100.0;
+    }
+}
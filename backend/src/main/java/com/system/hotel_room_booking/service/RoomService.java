@@ -28,6 +28,7 @@ public class RoomService {
     private final RoomRepository roomRepository;
     private final AmenityRepository amenityRepository;
     private final BookingRepository bookingRepository;
+    private final RoomRatingService roomRatingService;
 
     /**
      * Create a new room
@@ -128,18 +129,23 @@ public class RoomService {
      * Get all rooms with pagination
      */
     @Transactional(readOnly = true)
-    public Page<RoomResponse> getAllRooms(Pageable pageable) {
+    public Page<RoomResponse> getAllRooms(Pageable pageable, boolean includeRatings) {
         log.info("Fetching all rooms with pagination");
 
-        return roomRepository.findAll(pageable)
+        Page<RoomResponse> rooms = roomRepository.findAll(pageable)
                 .map(this::mapToRoomResponse);
+        if (includeRatings) {
+            attachRatings(rooms.getContent());
+        }
+        return rooms;
     }
 
     /**
      * Search available rooms for given dates
      */
     @Transactional(readOnly = true)
-    public List<RoomResponse> searchAvailableRooms(LocalDate checkIn, LocalDate checkOut, RoomType type, Integer minCapacity) {
+    public List<RoomResponse> searchAvailableRooms(LocalDate checkIn, LocalDate checkOut, RoomType type, Integer minCapacity,
+                                                   boolean includeRatings) {
         log.info("Searching available rooms from {} to {}", checkIn, checkOut);
 
         // Validate dates
@@ -168,23 +174,31 @@ public class RoomService {
 
         log.info("Found {} available rooms", availableRooms.size());
 
-        return availableRooms.stream()
+        List<RoomResponse> rooms = availableRooms.stream()
                 .map(this::mapToRoomResponse)
                 .collect(Collectors.toList());
+        if (includeRatings) {
+            attachRatings(rooms);
+        }
+        return rooms;
     }
 
     /**
      * Get rooms by price range
      */
     @Transactional(readOnly = true)
-    public List<RoomResponse> getRoomsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+    public List<RoomResponse> getRoomsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, boolean includeRatings) {
         log.info("Fetching rooms with price range: {} - {}", minPrice, maxPrice);
 
         List<Room> rooms = roomRepository.findByPriceRange(minPrice, maxPrice);
 
-        return rooms.stream()
+        List<RoomResponse> responses = rooms.stream()
                 .map(this::mapToRoomResponse)
                 .collect(Collectors.toList());
+        if (includeRatings) {
+            attachRatings(responses);
+        }
+        return responses;
     }
 
     /**
@@ -226,6 +240,18 @@ public class RoomService {
         return stats;
     }
 
+    /**
+     * Attach rating summaries to a page of rooms with one batched lookup
+     */
+    private void attachRatings(List<RoomResponse> rooms) {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        Map<Long, RoomRatingSummaryResponse> ratings = roomRatingService.getRoomRatings(
+                rooms.stream().map(RoomResponse::getId).collect(Collectors.toList()));
+        rooms.forEach(room -> room.setRating(ratings.get(room.getId())));
+    }
+
     /**
      * Map Room entity to RoomResponse DTO
      */
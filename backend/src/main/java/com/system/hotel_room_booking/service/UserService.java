@@ -10,11 +10,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.system.hotel_room_booking.model.dto.UpdateProfileRequest;
 import com.system.hotel_room_booking.model.dto.UserResponse;
+import com.system.hotel_room_booking.model.entity.OneTimeToken;
+import com.system.hotel_room_booking.model.entity.OneTimeTokenPurpose;
 import com.system.hotel_room_booking.model.entity.User;
 import com.system.hotel_room_booking.repository.UserRepository;
+import com.system.hotel_room_booking.security.ApiKeyRegistry;
+import com.system.hotel_room_booking.util.TokenHashUtil;
 
-import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Map;
@@ -29,6 +33,9 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final FileStorageService fileStorageService;
     private final EmailService emailService;
+    private final OneTimeTokenService oneTimeTokenService;
+    private final ApiKeyRegistry apiKeyRegistry;
+    private static final Duration EMAIL_CHANGE_TOKEN_VALIDITY = Duration.ofHours(24);
     
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -84,17 +91,12 @@ public class UserService {
             throw new RuntimeException("Email is already in use");
         }
         
-        // Generate email change verification token
-        String verificationToken = generateSecureToken();
-        LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24);
-        
-        // Store pending email and token
+        // Store pending email and generate its verification token
         user.setPendingEmail(newEmail);
-        user.setEmailChangeToken(verificationToken);
-        user.setEmailChangeTokenExpiresAt(tokenExpiry);
-        
         userRepository.save(user);
         
+        String verificationToken = oneTimeTokenService.issue(user, OneTimeTokenPurpose.EMAIL_CHANGE, EMAIL_CHANGE_TOKEN_VALIDITY);
+        
         // Send verification email to new email address
         try {
             emailService.sendEmailChangeVerificationEmail(
@@ -118,15 +120,17 @@ public class UserService {
     
     @Transactional
     public Map<String, String> verifyEmailChange(String token) {
-        User user = userRepository.findByEmailChangeToken(token)
+        OneTimeToken emailChange = oneTimeTokenService.find(token, OneTimeTokenPurpose.EMAIL_CHANGE)
             .orElseThrow(() -> new RuntimeException("Invalid verification token"));
         
         // Check if token has expired
-        if (user.getEmailChangeTokenExpiresAt() == null || 
-            user.getEmailChangeTokenExpiresAt().isBefore(LocalDateTime.now())) {
+        if (emailChange.getExpiresAt().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Verification token has expired. Please request a new email change.");
         }
         
+        User user = emailChange.getUser();
+        oneTimeTokenService.consume(emailChange);
+        
         // Check if pending email still available
         if (user.getPendingEmail() == null) {
             throw new RuntimeException("No pending email change found");
@@ -135,8 +139,6 @@ public class UserService {
         // Double-check if new email is still available (in case someone registered with it in the meantime)
         if (userRepository.existsByEmail(user.getPendingEmail())) {
             user.setPendingEmail(null);
-            user.setEmailChangeToken(null);
-            user.setEmailChangeTokenExpiresAt(null);
             userRepository.save(user);
             throw new RuntimeException("Email is no longer available");
         }
@@ -147,8 +149,6 @@ public class UserService {
         // Update email
         user.setEmail(newEmail);
         user.setPendingEmail(null);
-        user.setEmailChangeToken(null);
-        user.setEmailChangeTokenExpiresAt(null);
         
         userRepository.save(user);
         
@@ -177,8 +177,7 @@ public class UserService {
         }
         
         user.setPendingEmail(null);
-        user.setEmailChangeToken(null);
-        user.setEmailChangeTokenExpiresAt(null);
+        oneTimeTokenService.revoke(user.getId(), OneTimeTokenPurpose.EMAIL_CHANGE);
         
         userRepository.save(user);
         
@@ -187,13 +186,10 @@ public class UserService {
         return Map.of("message", "Email change request has been cancelled");
     }
     
-    private String generateSecureToken() {
-        SecureRandom random = new SecureRandom();
-        byte[] bytes = new byte[32];
-        random.nextBytes(bytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
-    }
-    
+    /**
+     * Issue a new API key, replacing the previous one
+     * Only the key's SHA-256 is stored, so the key is shown to the user this once
+     */
     @Transactional
     public String generateApiKey() {
         User user = getCurrentUser();
@@ -202,26 +198,22 @@ public class UserService {
         SecureRandom random = new SecureRandom();
         byte[] bytes = new byte[32];
         random.nextBytes(bytes);
+        String apiKey = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
         
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(bytes);
-            String apiKey = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            
-            user.setApiKey(apiKey);
-            user.setApiKeyExpiresAt(LocalDateTime.now().plusYears(1)); // Valid for 1 year
-            
-            userRepository.save(user);
-            
-            return apiKey;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate API key", e);
-        }
+        apiKeyRegistry.evictAfterCommit(user.getApiKey());
+        user.setApiKey(TokenHashUtil.sha256(apiKey));
+        user.setApiKeyCreatedAt(LocalDateTime.now());
+        user.setApiKeyExpiresAt(LocalDateTime.now().plusYears(1)); // Valid for 1 year
+        
+        userRepository.save(user);
+        
+        return apiKey;
     }
     
     @Transactional
     public void revokeApiKey() {
         User user = getCurrentUser();
+        apiKeyRegistry.evictAfterCommit(user.getApiKey());
         user.setApiKey(null);
         user.setApiKeyExpiresAt(null);
         userRepository.save(user);
@@ -0,0 +1,105 @@
+package com.system.hotel_room_booking.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings
+ * mightContain never returns false for an added value; it returns true for other values
+ * with roughly the configured false positive probability while the filter stays within its capacity
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+
+    /**
+     * @param expectedInsertions number of values the filter is sized for
+     * @param falsePositiveRate target false positive probability at that size, between 0 and 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("expectedInsertions must be at least 1");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + m + " bits");
+        }
+        long words = Math.max(1, (m + 63) >>> 6);
+        this.bits = new AtomicLongArray((int) words);
+        this.bitCount = words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.capacity = expectedInsertions;
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1, h2, i));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1, h2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of values the filter was sized for
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    // Kirsch-Mitzenmacher double hashing: the i-th index is h1 + i * h2
+    private long index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        if (combined < 0) {
+            combined = ~combined;
+        }
+        return combined % bitCount;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars followed by the MurmurHash3 finalizer
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53fe1a85ec9L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
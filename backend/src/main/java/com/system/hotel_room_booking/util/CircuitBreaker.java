@@ -0,0 +1,75 @@
+package com.system.hotel_room_booking.util;
+
+import java.time.Duration;
+
+/**
+ * Minimal consecutive-failure circuit breaker
+ * Opens after the configured number of failures in a row, rejects calls while open,
+ * then lets a single trial call through; its outcome closes or re-opens the circuit
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Whether a call may proceed; callers that get true must report onSuccess or onFailure
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default: // HALF_OPEN
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            consecutiveFailures = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -2,22 +2,13 @@ package com.system.hotel_room_booking.util;
 
 import lombok.extern.slf4j.Slf4j;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-
 /**
  * Utility class for generating HMAC SHA512 hash for ABA PayWay API
- * Based on PayWay documentation requirements
+ * Based on PayWay documentation requirements; hashing is delegated to {@link PayWaySigner}
  */
 @Slf4j
 public class PayWayHashUtil {
 
-    private static final String HMAC_SHA512 = "HmacSHA512";
-
     /**
      * Generate hash for PayWay Purchase API request
      * Concatenates values in specific order and generates Base64 encoded HMAC SHA512 hash
@@ -65,28 +56,12 @@ public class PayWayHashUtil {
             String skipSuccessPage,
             String publicKey) {
         
-        // Concatenate values in exact order specified by PayWay
-        StringBuilder dataToHash = new StringBuilder();
-        dataToHash.append(nvl(reqTime))
-                  .append(nvl(merchantId))
-                  .append(nvl(tranId))
-                  .append(nvl(amount))
-                  .append(nvl(firstname))
-                  .append(nvl(lastname))
-                  .append(nvl(email))
-                  .append(nvl(phone))
-                  .append(nvl(type))
-                  .append(nvl(paymentOption))
-                  .append(nvl(returnUrl))
-                  .append(nvl(cancelUrl))
-                  .append(nvl(continueSuccessUrl))
-                  .append(nvl(returnParams))
-                  .append(nvl(lifetime))
-                  .append(nvl(skipSuccessPage));
-
-        log.debug("Data to hash: {}", dataToHash);
-        
-        return generateHash(dataToHash.toString(), publicKey);
+        // Fields are signed in exact order specified by PayWay
+        return PayWaySigner.of(publicKey).sign(
+                reqTime, merchantId, tranId, amount,
+                firstname, lastname, email, phone,
+                type, paymentOption, returnUrl, cancelUrl, continueSuccessUrl,
+                returnParams, lifetime, skipSuccessPage);
     }
 
     /**
@@ -106,13 +81,26 @@ public class PayWayHashUtil {
             String hash,
             String publicKey) {
         
-        StringBuilder dataToHash = new StringBuilder();
-        dataToHash.append(nvl(tranId))
-                  .append(nvl(reqTime))
-                  .append(nvl(status))
-                  .append(nvl(hash));
+        return PayWaySigner.of(publicKey).sign(tranId, reqTime, status, hash);
+    }
 
-        return generateHash(dataToHash.toString(), publicKey);
+    /**
+     * Generate hash for PayWay Check Transaction API request
+     * Order as per PayWay specification: req_time, merchant_id, tran_id
+     *
+     * @param reqTime Request time in YYYYMMDDHHmmss format
+     * @param merchantId Merchant ID
+     * @param tranId Transaction ID
+     * @param publicKey Public key for HMAC
+     * @return Base64 encoded hash
+     */
+    public static String generateCheckTransactionHash(
+            String reqTime,
+            String merchantId,
+            String tranId,
+            String publicKey) {
+
+        return PayWaySigner.of(publicKey).sign(reqTime, merchantId, tranId);
     }
 
     /**
@@ -132,48 +120,13 @@ public class PayWayHashUtil {
             String receivedHash,
             String publicKey) {
         
-        StringBuilder dataToHash = new StringBuilder();
-        dataToHash.append(nvl(tranId))
-                  .append(nvl(reqTime))
-                  .append(nvl(status));
-
-        String calculatedHash = generateHash(dataToHash.toString(), publicKey);
-        boolean isValid = calculatedHash.equals(receivedHash);
+        // Constant-time comparison
+        boolean isValid = PayWaySigner.of(publicKey).verify(receivedHash, tranId, reqTime, status);
         
         if (!isValid) {
-            log.warn("Hash verification failed. Calculated: {}, Received: {}", calculatedHash, receivedHash);
+            log.warn("Hash verification failed for transaction: {}, Received: {}", tranId, receivedHash);
         }
         
         return isValid;
     }
-
-    /**
-     * Generate HMAC SHA512 hash and encode as Base64
-     * 
-     * @param data Data to hash
-     * @param key Secret key
-     * @return Base64 encoded hash
-     */
-    private static String generateHash(String data, String key) {
-        try {
-            Mac sha512Hmac = Mac.getInstance(HMAC_SHA512);
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_SHA512);
-            sha512Hmac.init(secretKey);
-            
-            byte[] hashBytes = sha512Hmac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hashBytes);
-            
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            log.error("Error generating hash", e);
-            throw new RuntimeException("Failed to generate hash", e);
-        }
-    }
-
-    /**
-     * Null-safe string conversion
-     * Returns empty string if value is null
-     */
-    private static String nvl(String value) {
-        return value == null ? "" : value;
-    }
 }
@@ -0,0 +1,188 @@
+package com.system.hotel_room_booking.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HMAC SHA512 signing engine for ABA PayWay hashes
+ * Keys a prototype Mac once and hands out clones of it from a small pool, fed fields as UTF-8 bytes,
+ * so signing neither builds intermediate strings nor re-initializes the key
+ * A pool rather than a ThreadLocal keeps the number of Macs bounded by concurrent signings,
+ * not by the number of threads that ever signed (request threads may be virtual)
+ */
+public final class PayWaySigner {
+
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    private static final int MAC_LENGTH = 64;
+    private static final int BASE64_LENGTH = 88;
+    private static final int SCRATCH_SIZE = 512;
+    private static final int POOL_SIZE = 32;
+
+    // Signers are keyed by API key; the application only ever uses a handful of keys
+    private static final Map<String, PayWaySigner> SIGNERS = new ConcurrentHashMap<>();
+
+    private final SecretKeySpec secretKey;
+    private final Mac prototype;
+    private final ArrayBlockingQueue<State> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private PayWaySigner(String key) {
+        this.secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_SHA512);
+        this.prototype = newMac(secretKey);
+    }
+
+    /**
+     * Get the shared signer for a key
+     */
+    public static PayWaySigner of(String key) {
+        return SIGNERS.computeIfAbsent(key, PayWaySigner::new);
+    }
+
+    /**
+     * Sign the concatenation of the fields (null fields count as empty)
+     *
+     * @return Base64 encoded HMAC SHA512 hash
+     */
+    public String sign(String... fields) {
+        State s = acquire();
+        try {
+            int length = computeBase64(s, fields);
+            return new String(s.base64, 0, length, StandardCharsets.ISO_8859_1);
+        } finally {
+            release(s);
+        }
+    }
+
+    /**
+     * Verify a received Base64 hash against the fields in constant time
+     */
+    public boolean verify(String receivedHash, String... fields) {
+        if (receivedHash == null) {
+            return false;
+        }
+
+        State s = acquire();
+        try {
+            int length = computeBase64(s, fields);
+
+            int diff = length ^ receivedHash.length();
+            for (int i = 0; i < length; i++) {
+                char c = i < receivedHash.length() ? receivedHash.charAt(i) : 0;
+                diff |= s.base64[i] ^ c;
+            }
+            return diff == 0;
+        } finally {
+            release(s);
+        }
+    }
+
+    private State acquire() {
+        State s = pool.poll();
+        return s != null ? s : new State(cloneMac());
+    }
+
+    /**
+     * Return a state to the pool; beyond the pool size it is left to the garbage collector
+     */
+    private void release(State s) {
+        pool.offer(s);
+    }
+
+    /**
+     * Copy of the keyed prototype, which skips key setup; a fresh Mac if the provider cannot clone
+     */
+    private Mac cloneMac() {
+        try {
+            synchronized (prototype) {
+                return (Mac) prototype.clone();
+            }
+        } catch (CloneNotSupportedException e) {
+            return newMac(secretKey);
+        }
+    }
+
+    private int computeBase64(State s, String... fields) {
+        try {
+            for (String field : fields) {
+                update(s, field);
+            }
+            s.mac.doFinal(s.digest, 0);
+        } catch (GeneralSecurityException e) {
+            s.mac.reset();
+            throw new RuntimeException("Failed to generate hash", e);
+        }
+        return Base64.getEncoder().encode(s.digest, s.base64);
+    }
+
+    /**
+     * Encode a field as UTF-8 into the scratch buffer and feed it to the MAC
+     */
+    private void update(State s, String field) {
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+
+        byte[] buf = s.scratch;
+        int pos = 0;
+        int len = field.length();
+
+        for (int i = 0; i < len; i++) {
+            // Flush early so a 4-byte sequence always fits
+            if (pos > SCRATCH_SIZE - 4) {
+                s.mac.update(buf, 0, pos);
+                pos = 0;
+            }
+
+            char c = field.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(field.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, field.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[pos++] = (byte) '?'; // Same replacement String.getBytes uses for malformed input
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        s.mac.update(buf, 0, pos);
+    }
+
+    private static Mac newMac(SecretKeySpec secretKey) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA512);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to initialize " + HMAC_SHA512, e);
+        }
+    }
+
+    /**
+     * A MAC and its buffers, used by one signing at a time
+     */
+    private static final class State {
+        private final Mac mac;
+        private final byte[] scratch = new byte[SCRATCH_SIZE];
+        private final byte[] digest = new byte[MAC_LENGTH];
+        private final byte[] base64 = new byte[BASE64_LENGTH];
+
+        private State(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
@@ -2,12 +2,8 @@ package com.system.hotel_room_booking.util;
 
 import lombok.experimental.UtilityClass;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Base64;
 import java.util.UUID;
 
 /**
@@ -40,15 +36,7 @@ public class PayWayUtil {
      * @return Base64 encoded hash
      */
     public static String generateHash(String data, String key) {
-        try {
-            Mac sha512Hmac = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            sha512Hmac.init(secretKey);
-            byte[] hash = sha512Hmac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate hash", e);
-        }
+        return PayWaySigner.of(key).sign(data);
     }
 
     /**
@@ -62,9 +50,7 @@ public class PayWayUtil {
      */
     public static boolean validateCallbackHash(String tranId, String status, String receivedHash, String publicKey) {
         try {
-            String dataToHash = tranId + status;
-            String calculatedHash = generateHash(dataToHash, publicKey);
-            return calculatedHash.equals(receivedHash);
+            return PayWaySigner.of(publicKey).verify(receivedHash, tranId, status);
         } catch (Exception e) {
             return false;
         }
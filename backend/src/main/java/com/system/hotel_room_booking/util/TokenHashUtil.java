@@ -0,0 +1,28 @@
+package com.system.hotel_room_booking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Fixed-length SHA-256 digests of opaque tokens, for use as cache and lookup keys
+ * A token is never stored or indexed by its raw value
+ */
+public final class TokenHashUtil {
+
+    private TokenHashUtil() {
+    }
+
+    /**
+     * SHA-256 of the token, Base64url encoded without padding (43 characters)
+     */
+    public static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
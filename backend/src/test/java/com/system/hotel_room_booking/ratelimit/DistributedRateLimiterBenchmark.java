@@ -0,0 +1,64 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import com.system.hotel_room_booking.repository.RateLimitBucketRepository;
+import io.github.bucket4j.Bucket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Throughput of a local bucket against the shared store with and without batching
+ * The embedded database has no network round trip, so the gap to a real MySQL is larger than shown here
+ * Run with: mvn test -Dtest=DistributedRateLimiterBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class DistributedRateLimiterBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+    private static final long CAPACITY = 1_000_000_000L;
+
+    @Test
+    void compareLocalSharedAndBatched() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            jdbcTemplate.execute(DistributedRateLimiterTest.CREATE_TABLE_SQL);
+            RateLimitBucketRepository repository = new RateLimitBucketRepository(jdbcTemplate);
+            RateLimitTier tier = DistributedRateLimiterTest.tier(CAPACITY);
+
+            Bucket local = Bucket.builder().addLimit(tier.configuration().getBandwidths()[0]).build();
+            DistributedRateLimiter unbatched = DistributedRateLimiterTest.limiter(repository, 1);
+            DistributedRateLimiter batched = DistributedRateLimiterTest.limiter(repository, 100);
+
+            run("local", () -> local.tryConsume(1));
+            run("shared, batch 1", () -> unbatched.tryConsume("bench:unbatched", tier).isConsumed());
+            run("shared, batch 100", () -> batched.tryConsume("bench:batched", tier).isConsumed());
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private static void run(String name, BooleanSupplier consume) {
+        for (int i = 0; i < WARMUP; i++) {
+            consume.getAsBoolean();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (!consume.getAsBoolean()) {
+                throw new IllegalStateException(name + " ran out of tokens");
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-20s %,12.0f ops/s %,8d ns/op%n", name,
+            ITERATIONS * 1e9 / elapsed, elapsed / ITERATIONS);
+    }
+}
@@ -0,0 +1,178 @@
+package com.system.hotel_room_booking.ratelimit;
+
+import com.system.hotel_room_booking.repository.RateLimitBucketRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the shared buckets against an embedded database in its default mode, so the SQL must stay portable
+ */
+class DistributedRateLimiterTest {
+
+    static final String CREATE_TABLE_SQL =
+        "CREATE TABLE rate_limit_buckets (" +
+        "bucket_key VARCHAR(191) PRIMARY KEY, " +
+        "state VARCHAR(255) NOT NULL, " +
+        "version BIGINT NOT NULL, " +
+        "updated_at TIMESTAMP NOT NULL)";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private RateLimitBucketRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        repository = new RateLimitBucketRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    static RateLimitTier tier(long capacity) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder().capacity(capacity).refillIntervally(capacity, Duration.ofHours(1)).build())
+            .build();
+        return new RateLimitTier(null, "test:default:", configuration, capacity, 3600);
+    }
+
+    static DistributedRateLimiter limiter(RateLimitBucketRepository repository, long batchSize) {
+        return new DistributedRateLimiter(repository, new SimpleMeterRegistry(), true,
+            batchSize, 60_000, 1000, 100, 30_000, 3_600_000);
+    }
+
+    @Test
+    void instancesSharingABucketNeverGrantMoreThanItsCapacity() {
+        RateLimitTier tier = tier(10);
+        DistributedRateLimiter first = limiter(repository, 10);
+        DistributedRateLimiter second = limiter(repository, 10);
+
+        int consumed = 0;
+        for (int i = 0; i < 20; i++) {
+            DistributedRateLimiter instance = i % 2 == 0 ? first : second;
+            if (instance.tryConsume("test:default:client", tier).isConsumed()) {
+                consumed++;
+            }
+        }
+
+        assertThat(consumed).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentRequestsNeverGrantMoreThanTheCapacity() throws Exception {
+        RateLimitTier tier = tier(50);
+        List<DistributedRateLimiter> instances = List.of(limiter(repository, 10), limiter(repository, 10));
+        AtomicInteger consumed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                DistributedRateLimiter instance = instances.get(i % 2);
+                futures.add(executor.submit(() -> {
+                    ConsumptionProbe probe = instance.tryConsume("test:default:client", tier);
+                    if (probe != null && probe.isConsumed()) {
+                        consumed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(consumed.get()).isPositive().isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    void rejectsWithTheTimeUntilTheNextRefill() {
+        RateLimitTier tier = tier(1);
+        DistributedRateLimiter instance = limiter(repository, 10);
+
+        assertThat(instance.tryConsume("test:default:client", tier).isConsumed()).isTrue();
+        ConsumptionProbe rejected = instance.tryConsume("test:default:client", tier);
+
+        assertThat(rejected.isConsumed()).isFalse();
+        assertThat(rejected.getNanosToWaitForRefill()).isPositive();
+    }
+
+    @Test
+    void insertIfAbsentReportsABucketAnotherInstanceCreated() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(repository.insertIfAbsent("key", "1:0", now)).isTrue();
+        assertThat(repository.insertIfAbsent("key", "2:0", now)).isFalse();
+        assertThat(repository.find("key")).get().extracting(RateLimitBucketRepository.BucketRow::state).isEqualTo("1:0");
+    }
+
+    @Test
+    void compareAndSetFailsOnAStaleVersion() {
+        repository.insertIfAbsent("key", "1:0", LocalDateTime.now());
+
+        assertThat(repository.compareAndSet("key", 0, "2:0", LocalDateTime.now())).isTrue();
+        assertThat(repository.compareAndSet("key", 0, "3:0", LocalDateTime.now())).isFalse();
+        assertThat(repository.find("key")).get().extracting(RateLimitBucketRepository.BucketRow::version).isEqualTo(1L);
+    }
+
+    @Test
+    void deleteIdleRemovesOnlyIdleBucketsInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            repository.insertIfAbsent("idle-" + i, "1:0", now.minusHours(2));
+        }
+        repository.insertIfAbsent("busy", "1:0", now);
+
+        assertThat(repository.deleteIdle(now.minusHours(1), 3)).isEqualTo(3);
+        assertThat(repository.deleteIdle(now.minusHours(1), 3)).isEqualTo(2);
+        assertThat(repository.deleteIdle(now.minusHours(1), 3)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT bucket_key FROM rate_limit_buckets", String.class))
+            .containsExactly("busy");
+    }
+
+    @Test
+    void skipsTheSharedStoreDuringTheCooldownAfterAFailure() {
+        RateLimitBucketRepository failing = mock(RateLimitBucketRepository.class);
+        when(failing.find(anyString())).thenThrow(new DataAccessResourceFailureException("down"));
+        DistributedRateLimiter instance = limiter(failing, 10);
+
+        assertThat(instance.tryConsume("test:default:a", tier(10))).isNull();
+        assertThat(instance.tryConsume("test:default:b", tier(10))).isNull();
+
+        verify(failing, times(1)).find(anyString());
+    }
+}
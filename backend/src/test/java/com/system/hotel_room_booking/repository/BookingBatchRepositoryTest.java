@@ -0,0 +1,102 @@
+package com.system.hotel_room_booking.repository;
+
+import com.system.hotel_room_booking.model.entity.Booking;
+import com.system.hotel_room_booking.model.entity.BookingStatus;
+import com.system.hotel_room_booking.model.entity.Payment;
+import com.system.hotel_room_booking.model.entity.Room;
+import com.system.hotel_room_booking.model.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the batch SQL and id resolution on an embedded database with just the columns it touches
+ */
+class BookingBatchRepositoryTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private BookingBatchRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE bookings (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "confirmation_number VARCHAR(50) NOT NULL UNIQUE, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL, " +
+            "status VARCHAR(20) NOT NULL, check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, " +
+            "number_of_guests INT NOT NULL, total_price DECIMAL(10, 2) NOT NULL, discount_amount DECIMAL(10, 2), " +
+            "final_price DECIMAL(10, 2) NOT NULL, transaction_id VARCHAR(100), paid_at TIMESTAMP, " +
+            "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE payment_bookings (payment_id BIGINT NOT NULL, booking_id BIGINT NOT NULL, " +
+            "PRIMARY KEY (payment_id, booking_id))");
+        jdbcTemplate.execute("CREATE TABLE rooms (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO rooms (id, status) VALUES (1, 'AVAILABLE'), (2, 'AVAILABLE'), (3, 'AVAILABLE')");
+        repository = new BookingBatchRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void insertsLinksAndReservesAWholeCart() {
+        Payment payment = Payment.builder().id(10L).transactionId("tran-1").build();
+        List<Booking> bookings = List.of(booking("CONF-1", 1L, "tran-1"), booking("CONF-2", 2L, "tran-1"));
+
+        repository.insertPaidBookings(payment, bookings);
+
+        assertThat(bookings).allSatisfy(booking -> assertThat(booking.getId()).isNotNull());
+        assertThat(bookings.get(0).getId()).isNotEqualTo(bookings.get(1).getId());
+        assertThat(jdbcTemplate.queryForList("SELECT booking_id FROM payment_bookings WHERE payment_id = 10", Long.class))
+            .containsExactlyInAnyOrder(bookings.get(0).getId(), bookings.get(1).getId());
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM rooms WHERE status = 'RESERVED'", Long.class))
+            .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void resolvesIdsOnlyFromItsOwnTransaction() {
+        repository.insertPaidBookings(Payment.builder().id(10L).transactionId("tran-1").build(),
+            List.of(booking("CONF-1", 1L, "tran-1")));
+        Booking other = booking("CONF-3", 3L, "tran-2");
+
+        repository.insertPaidBookings(Payment.builder().id(11L).transactionId("tran-2").build(), List.of(other));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT confirmation_number FROM bookings WHERE id = ?",
+            String.class, other.getId())).isEqualTo("CONF-3");
+        assertThat(jdbcTemplate.queryForList("SELECT booking_id FROM payment_bookings WHERE payment_id = 11", Long.class))
+            .containsExactly(other.getId());
+    }
+
+    private static Booking booking(String confirmationNumber, Long roomId, String transactionId) {
+        return Booking.builder()
+            .confirmationNumber(confirmationNumber)
+            .user(User.builder().id(5L).build())
+            .room(Room.builder().id(roomId).build())
+            .status(BookingStatus.CONFIRMED)
+            .checkInDate(LocalDate.now().plusDays(7))
+            .checkOutDate(LocalDate.now().plusDays(9))
+            .numberOfGuests(2)
+            .totalPrice(new BigDecimal("200.00"))
+            .finalPrice(new BigDecimal("200.00"))
+            .transactionId(transactionId)
+            .paidAt(LocalDateTime.now())
+            .build();
+    }
+}
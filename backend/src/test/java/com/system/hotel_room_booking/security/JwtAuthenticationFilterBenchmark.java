@@ -0,0 +1,105 @@
+package com.system.hotel_room_booking.security;
+
+import com.system.hotel_room_booking.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of authenticating one request with a bearer access token through JwtAuthenticationFilter.doFilterInternal:
+ * with a hit in the verified-token cache, and with the cache disabled so every request checks the signature
+ * Run with: mvn test -Dtest=JwtAuthenticationFilterBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthenticationFilterBenchmark.class.getName() + "\\.").build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider cached = JwtTokenProviderTest.provider(JwtTokenProviderTest.SECRET, 3_600_000);
+        JwtTokenProvider uncached = JwtTokenProviderTest.provider(JwtTokenProviderTest.SECRET, 3_600_000, 0);
+        token = cached.generateAccessToken(JwtTokenProviderTest.user());
+
+        // The token state is loaded once and then served from memory, as in production
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenStateById(anyLong()))
+            .thenReturn(Optional.of(new UserTokenState(42L, 3L, true, true)));
+        TokenVersionService tokenVersionService = new TokenVersionService(userRepository, 3_600_000, 1000);
+
+        cachedFilter = filter(cached, tokenVersionService);
+        uncachedFilter = filter(uncached, tokenVersionService);
+    }
+
+    @Benchmark
+    public Authentication verifiedTokenCache() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    @Benchmark
+    public Authentication signatureCheck() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilterInternal(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null) {
+                throw new IllegalStateException("Request was not authenticated");
+            }
+            return authentication;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtAuthenticationFilter filter(JwtTokenProvider tokenProvider, TokenVersionService tokenVersionService) {
+        JwtAuthenticationFilter filter =
+            new JwtAuthenticationFilter(tokenProvider, mock(CustomUserDetailsService.class), tokenVersionService);
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+        return filter;
+    }
+}
@@ -0,0 +1,86 @@
+package com.system.hotel_room_booking.security;
+
+import com.system.hotel_room_booking.model.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    static final String SECRET = "test-secret-test-secret-test-secret-test-secret-test-secret-0123";
+
+    private JwtTokenProvider tokenProvider;
+
+    static JwtTokenProvider provider(String secret, long expirationMs) {
+        return provider(secret, expirationMs, 100);
+    }
+
+    static JwtTokenProvider provider(String secret, long expirationMs, long verifiedCacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", verifiedCacheSize);
+        provider.init();
+        return provider;
+    }
+
+    static User user() {
+        return User.builder().id(42L).username("guest").email("guest@example.com").tokenVersion(3L).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = provider(SECRET, 60_000);
+    }
+
+    @Test
+    void verifyReturnsTheClaimsOfItsOwnToken() {
+        Optional<Claims> claims = tokenProvider.verify(tokenProvider.generateAccessToken(user()));
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("guest");
+        assertThat(claims.get().get(JwtTokenProvider.CLAIM_USER_ID, Long.class)).isEqualTo(42L);
+        assertThat(claims.get().get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Long.class)).isEqualTo(3L);
+    }
+
+    @Test
+    void repeatVerificationsAreServedFromTheCache() {
+        String token = tokenProvider.generateAccessToken(user());
+
+        Claims first = tokenProvider.verify(token).orElseThrow();
+        Claims second = tokenProvider.verify(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verifyRejectsATamperedToken() {
+        String token = tokenProvider.generateAccessToken(user());
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char flipped = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + flipped + token.substring(signatureStart + 1);
+
+        assertThat(tokenProvider.verify(tampered)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsATokenSignedWithAnotherKey() {
+        JwtTokenProvider other = provider(SECRET.replace('0', '9'), 60_000);
+
+        assertThat(tokenProvider.verify(other.generateAccessToken(user()))).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsAnExpiredToken() {
+        JwtTokenProvider shortLived = provider(SECRET, -1_000);
+
+        assertThat(shortLived.verify(shortLived.generateAccessToken(user()))).isEmpty();
+        assertThat(shortLived.verify(null)).isEmpty();
+        assertThat(shortLived.verify("")).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.system.hotel_room_booking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptTrackerTest {
+
+    private static final long LONG_MS = 60_000;
+
+    @Test
+    void locksTheAccountOnTheLastAllowedFailure() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(3, LONG_MS, LONG_MS, 100);
+
+        assertThat(tracker.recordFailure(1L)).isEqualTo(new LoginAttemptTracker.Attempts(1, null));
+        assertThat(tracker.recordFailure(1L)).isEqualTo(new LoginAttemptTracker.Attempts(2, null));
+        assertThat(tracker.lockedUntil(1L)).isNull();
+
+        LoginAttemptTracker.Attempts locked = tracker.recordFailure(1L);
+
+        assertThat(locked.failures()).isEqualTo(3);
+        assertThat(locked.lockedUntil()).isAfter(LocalDateTime.now().plusSeconds(50));
+        assertThat(tracker.lockedUntil(1L)).isEqualTo(locked.lockedUntil());
+    }
+
+    @Test
+    void failuresOutsideTheWindowDoNotCount() throws InterruptedException {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(3, 100, LONG_MS, 100);
+        tracker.recordFailure(1L);
+        tracker.recordFailure(1L);
+
+        Thread.sleep(200);
+
+        assertThat(tracker.recordFailure(1L)).isEqualTo(new LoginAttemptTracker.Attempts(1, null));
+        assertThat(tracker.lockedUntil(1L)).isNull();
+    }
+
+    @Test
+    void theLockEndsAfterItsDuration() throws InterruptedException {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, LONG_MS, 100, 100);
+        tracker.recordFailure(1L);
+        tracker.recordFailure(1L);
+        assertThat(tracker.lockedUntil(1L)).isNotNull();
+
+        Thread.sleep(200);
+
+        assertThat(tracker.lockedUntil(1L)).isNull();
+        // The failures that caused the lock were cleared with it
+        assertThat(tracker.recordFailure(1L)).isEqualTo(new LoginAttemptTracker.Attempts(1, null));
+    }
+
+    @Test
+    void failuresDuringALockDoNotExtendIt() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, LONG_MS, LONG_MS, 100);
+        tracker.recordFailure(1L);
+        LocalDateTime lockedUntil = tracker.recordFailure(1L).lockedUntil();
+
+        LoginAttemptTracker.Attempts duringLock = tracker.recordFailure(1L);
+        tracker.recordFailure(1L);
+
+        assertThat(duringLock.lockedUntil()).isEqualTo(lockedUntil);
+        assertThat(tracker.lockedUntil(1L)).isEqualTo(lockedUntil);
+    }
+
+    @Test
+    void resetForgetsFailuresAndLock() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, LONG_MS, LONG_MS, 100);
+        tracker.recordFailure(1L);
+        tracker.recordFailure(1L);
+
+        tracker.reset(1L);
+
+        assertThat(tracker.lockedUntil(1L)).isNull();
+        assertThat(tracker.recordFailure(1L)).isEqualTo(new LoginAttemptTracker.Attempts(1, null));
+    }
+
+    @Test
+    void accountsAreTrackedSeparately() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, LONG_MS, LONG_MS, 100);
+        tracker.recordFailure(1L);
+        tracker.recordFailure(1L);
+
+        assertThat(tracker.lockedUntil(2L)).isNull();
+        assertThat(tracker.recordFailure(2L)).isEqualTo(new LoginAttemptTracker.Attempts(1, null));
+    }
+}
@@ -0,0 +1,91 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.model.entity.DiscountType;
+import com.system.hotel_room_booking.repository.DiscountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountCatalogTest {
+
+    @Mock
+    private DiscountRepository discountRepository;
+
+    @Mock
+    private DiscountCodeFilter discountCodeFilter;
+
+    @InjectMocks
+    private DiscountCatalog discountCatalog;
+
+    @Test
+    void usageCountsStopACodeAtItsLimitWithoutARefresh() {
+        when(discountRepository.findByCampaignIsNull()).thenReturn(List.of(discount(1L, "SAVE10", 2, 0)));
+        discountCatalog.refresh();
+
+        discountCatalog.recordUsageAfterCommit(1L);
+        assertThat(discountCatalog.findValid("SAVE10", LocalDateTime.now())).isPresent();
+
+        discountCatalog.recordUsageAfterCommit(1L);
+        assertThat(discountCatalog.findValid("SAVE10", LocalDateTime.now())).isEmpty();
+        assertThat(discountCatalog.findByCode("save10")).get()
+            .extracting(DiscountSnapshot::currentUsageCount).isEqualTo(2);
+    }
+
+    @Test
+    void writeThroughsDuringARefreshSurviveIt() {
+        when(discountRepository.findByCampaignIsNull())
+            .thenReturn(List.of(discount(1L, "SAVE10", 5, 0), discount(2L, "OLD", null, 0)));
+        discountCatalog.refresh();
+
+        // Changes committed while the next refresh is reading, so its result predates them
+        when(discountRepository.findByCampaignIsNull()).thenAnswer(invocation -> {
+            discountCatalog.putAfterCommit(discount(3L, "NEW", null, 0));
+            discountCatalog.removeAfterCommit(2L);
+            discountCatalog.recordUsageAfterCommit(1L);
+            return List.of(discount(1L, "SAVE10", 5, 0), discount(2L, "OLD", null, 0));
+        });
+        discountCatalog.refresh();
+
+        assertThat(discountCatalog.findByCode("NEW")).isPresent();
+        assertThat(discountCatalog.findByCode("OLD")).isEmpty();
+        assertThat(discountCatalog.findByCode("SAVE10")).get()
+            .extracting(DiscountSnapshot::currentUsageCount).isEqualTo(1);
+    }
+
+    @Test
+    void aRefreshReplacesTheLocalUsageCount() {
+        when(discountRepository.findByCampaignIsNull()).thenReturn(List.of(discount(1L, "SAVE10", 10, 0)));
+        discountCatalog.refresh();
+        discountCatalog.recordUsageAfterCommit(1L);
+
+        // Uses recorded by other instances arrive with the next load
+        when(discountRepository.findByCampaignIsNull()).thenReturn(List.of(discount(1L, "SAVE10", 10, 4)));
+        discountCatalog.refresh();
+
+        assertThat(discountCatalog.findByCode("SAVE10")).get()
+            .extracting(DiscountSnapshot::currentUsageCount).isEqualTo(4);
+    }
+
+    private static Discount discount(Long id, String code, Integer maxUsageCount, int usageCount) {
+        return Discount.builder()
+            .id(id)
+            .code(code)
+            .name(code)
+            .type(DiscountType.PERCENTAGE)
+            .percentageValue(new BigDecimal("10"))
+            .maxUsageCount(maxUsageCount)
+            .currentUsageCount(usageCount)
+            .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.InvalidDiscountException;
+import com.system.hotel_room_booking.model.entity.Discount;
+import com.system.hotel_room_booking.model.entity.DiscountType;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.DiscountRedemptionRepository;
+import com.system.hotel_room_booking.repository.DiscountRepository;
+import com.system.hotel_room_booking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fires parallel redemptions at a limited code, each in its own committed transaction, and checks
+ * that neither the global nor the per-user limit is oversold
+ * Runs on an embedded database in MySQL mode because the redemption SQL uses INSERT IGNORE
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:redemptions;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DiscountRedemptionService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DiscountRedemptionServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private DiscountRedemptionService discountRedemptionService;
+
+    @Autowired
+    private DiscountRepository discountRepository;
+
+    @Autowired
+    private DiscountRedemptionRepository discountRedemptionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private DiscountCatalog discountCatalog;
+
+    @AfterEach
+    void tearDown() {
+        discountRedemptionRepository.deleteAll();
+        discountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void parallelRedemptionsNeverExceedTheGlobalLimit() throws Exception {
+        Discount discount = saveDiscount("GLOBAL10", 10, null);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            userIds.add(saveUser("global" + i).getId());
+        }
+
+        int redeemed = redeemInParallel(DiscountSnapshot.from(discount), userIds);
+
+        assertThat(redeemed).isEqualTo(10);
+        assertThat(discountRepository.findById(discount.getId()).orElseThrow().getCurrentUsageCount()).isEqualTo(10);
+        // Failed attempts roll back their per-user increment
+        assertThat(totalRedemptionCount(discount.getId())).isEqualTo(10);
+    }
+
+    @Test
+    void parallelRedemptionsByOneUserNeverExceedThePerUserLimit() throws Exception {
+        Discount discount = saveDiscount("PERUSER2", null, 2);
+        Long userId = saveUser("repeat").getId();
+
+        // No counter row yet: every first redemption races to create it
+        int redeemed = redeemInParallel(DiscountSnapshot.from(discount), Collections.nCopies(40, userId));
+
+        assertThat(redeemed).isBetween(1, 2);
+        assertThat(totalRedemptionCount(discount.getId())).isEqualTo(redeemed);
+        assertThat(discountRepository.findById(discount.getId()).orElseThrow().getCurrentUsageCount()).isEqualTo(redeemed);
+
+        // Whatever the race left over is still available, and nothing more
+        while (redeemed < 2) {
+            redeem(DiscountSnapshot.from(discount), userId);
+            redeemed++;
+        }
+        assertThatThrownBy(() -> redeem(DiscountSnapshot.from(discount), userId))
+            .isInstanceOf(InvalidDiscountException.class);
+        assertThat(totalRedemptionCount(discount.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void releaseGivesBackTheUseToTheUserAndTheCode() {
+        Discount discount = saveDiscount("ONCE", 1, 1);
+        Long userId = saveUser("refunded").getId();
+        redeem(DiscountSnapshot.from(discount), userId);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            discountRedemptionService.release(discount.getId(), userId));
+
+        assertThat(totalRedemptionCount(discount.getId())).isZero();
+        assertThat(discountRepository.findById(discount.getId()).orElseThrow().getCurrentUsageCount()).isZero();
+        redeem(DiscountSnapshot.from(discount), userId);
+        assertThat(totalRedemptionCount(discount.getId())).isEqualTo(1);
+    }
+
+    private void redeem(DiscountSnapshot discount, Long userId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            discountRedemptionService.redeem(discount, userId));
+    }
+
+    private int redeemInParallel(DiscountSnapshot discount, List<Long> userIds) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transaction.executeWithoutResult(status -> discountRedemptionService.redeem(discount, userId));
+                        redeemed.incrementAndGet();
+                    } catch (InvalidDiscountException e) {
+                        rejected.incrementAndGet();
+                    } catch (DataAccessException e) {
+                        // InnoDB makes a concurrent INSERT IGNORE wait for the first one to commit and then skips it;
+                        // H2 may fail the loser with a conflict instead, which rolls its redemption back just the same
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(redeemed.get() + rejected.get()).isEqualTo(userIds.size());
+        return redeemed.get();
+    }
+
+    private int totalRedemptionCount(Long discountId) {
+        Integer total = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(redemption_count), 0) FROM discount_redemptions WHERE discount_id = ?",
+            Integer.class, discountId);
+        return total != null ? total : 0;
+    }
+
+    private Discount saveDiscount(String code, Integer maxUsageCount, Integer maxUsagePerUser) {
+        return discountRepository.save(Discount.builder()
+            .code(code)
+            .name(code)
+            .type(DiscountType.PERCENTAGE)
+            .percentageValue(new BigDecimal("10"))
+            .maxUsageCount(maxUsageCount)
+            .maxUsagePerUser(maxUsagePerUser)
+            .build());
+    }
+
+    private User saveUser(String username) {
+        return userRepository.save(User.builder()
+            .username(username)
+            .email(username + "@example.com")
+            .password("{noop}password")
+            .enabled(true)
+            .build());
+    }
+}
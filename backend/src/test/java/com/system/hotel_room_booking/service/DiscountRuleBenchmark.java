@@ -0,0 +1,84 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.entity.DiscountType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a cart against 10k compiled rules of every type, the size the catalog is expected to reach
+ * Run with: mvn test -Dtest=DiscountRuleBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscountRuleBenchmark {
+
+    private static final int RULES = 10_000;
+
+    private DiscountRule[] rules;
+    private List<DiscountContext> cart;
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(DiscountRuleBenchmark.class.getName() + "\\.").build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        DiscountType[] types = DiscountType.values();
+        LocalDate today = LocalDate.now();
+        rules = new DiscountRule[RULES];
+        for (int i = 0; i < RULES; i++) {
+            DiscountType type = types[i % types.length];
+            boolean fixed = type == DiscountType.FIXED_AMOUNT;
+            rules[i] = DiscountRule.compile(type,
+                fixed ? null : BigDecimal.valueOf(5 + i % 20),
+                fixed ? BigDecimal.valueOf(10 + i % 50) : null,
+                BigDecimal.valueOf(100),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(30),
+                null, null,
+                type == DiscountType.SEASONAL ? today : null,
+                type == DiscountType.SEASONAL ? today.plusDays(90) : null,
+                i % 3 == 0 ? 2 : null,
+                null);
+        }
+        cart = List.of(
+            DiscountContext.of(today, today.plusDays(2), today.plusDays(4), new BigDecimal("180.00")).withUserBookingCount(3),
+            DiscountContext.of(today, today.plusDays(40), today.plusDays(41), new BigDecimal("95.00")).withUserBookingCount(3),
+            DiscountContext.of(today, today.plusDays(60), today.plusDays(67), new BigDecimal("840.00")).withUserBookingCount(3));
+    }
+
+    /**
+     * One cart against every rule; divide by the rule count for the cost per rule
+     */
+    @Benchmark
+    public void evaluateACartAgainstTenThousandRules(Blackhole blackhole) {
+        for (DiscountRule rule : rules) {
+            blackhole.consume(rule.calculate(cart));
+        }
+    }
+}
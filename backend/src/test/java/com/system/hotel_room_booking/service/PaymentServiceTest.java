@@ -0,0 +1,176 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.model.dto.payment.AbaPayWayCallbackRequest;
+import com.system.hotel_room_booking.model.entity.Cart;
+import com.system.hotel_room_booking.model.entity.CartItem;
+import com.system.hotel_room_booking.model.entity.CartStatus;
+import com.system.hotel_room_booking.model.entity.Payment;
+import com.system.hotel_room_booking.model.entity.PaymentStatus;
+import com.system.hotel_room_booking.model.entity.Room;
+import com.system.hotel_room_booking.model.entity.RoomType;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.BookingBatchRepository;
+import com.system.hotel_room_booking.repository.CartRepository;
+import com.system.hotel_room_booking.repository.PaymentRepository;
+import com.system.hotel_room_booking.repository.RoomRepository;
+import com.system.hotel_room_booking.repository.UserRepository;
+import com.system.hotel_room_booking.util.PayWaySigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs callbacks through the transactional service, outside a test transaction, so commits and rollbacks are real
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:payments;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+    "payway.base-url=https://payway.test",
+    "payway.purchase-path=/purchase",
+    "payway.merchant-id=merchant",
+    "payway.public-key=" + PaymentServiceTest.PUBLIC_KEY,
+    "payway.return-url=https://hotel.test/return",
+    "payway.cancel-url=https://hotel.test/cancel",
+    "payway.continue-success-url=https://hotel.test/success"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PaymentService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentServiceTest {
+
+    static final String PUBLIC_KEY = "test-public-key";
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private BookingBatchRepository bookingBatchRepository;
+
+    @MockBean
+    private DiscountRedemptionService discountRedemptionService;
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll();
+        cartRepository.deleteAll();
+        roomRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void aFailedBookingBatchLeavesThePaymentAndCartUncompleted() {
+        Payment payment = savePendingPayment("TXN-1", null);
+        doThrow(new DataIntegrityViolationException("duplicate confirmation number"))
+            .when(bookingBatchRepository).insertPaidBookings(any(), anyList());
+
+        String outcome = paymentService.handlePaymentCallback(callback(payment.getTransactionId(), 0));
+
+        assertThat(outcome).startsWith("Error processing callback");
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+            .isEqualTo(PaymentStatus.PENDING);
+        assertThat(cartRepository.findById(payment.getCart().getId()).orElseThrow().getStatus())
+            .isEqualTo(CartStatus.CHECKOUT_PENDING);
+    }
+
+    @Test
+    void aFailedPaymentReleasesItsDiscountOnce() {
+        Payment payment = savePendingPayment("TXN-2", 7L);
+
+        paymentService.handlePaymentCallback(callback(payment.getTransactionId(), 2));
+        // A repeated callback finds the payment settled
+        paymentService.handlePaymentCallback(callback(payment.getTransactionId(), 2));
+
+        verify(discountRedemptionService, times(1)).release(7L, payment.getUser().getId());
+        Payment failed = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(failed.getDiscountId()).isNull();
+        assertThat(cartRepository.findById(payment.getCart().getId()).orElseThrow().getStatus())
+            .isEqualTo(CartStatus.ACTIVE);
+    }
+
+    private Payment savePendingPayment(String transactionId, Long discountId) {
+        User user = userRepository.save(User.builder()
+            .username("guest")
+            .email("guest@example.com")
+            .password("{noop}password")
+            .enabled(true)
+            .build());
+        Room room = roomRepository.save(Room.builder()
+            .roomNumber("101")
+            .type(RoomType.DOUBLE)
+            .basePrice(new BigDecimal("80.00"))
+            .capacity(2)
+            .bedCount(1)
+            .size(24.0)
+            .build());
+
+        Cart cart = Cart.builder()
+            .user(user)
+            .status(CartStatus.CHECKOUT_PENDING)
+            .transactionId(transactionId)
+            .totalPrice(new BigDecimal("160.00"))
+            .build();
+        cart.getItems().add(CartItem.builder()
+            .cart(cart)
+            .room(room)
+            .checkInDate(LocalDate.now().plusDays(7))
+            .checkOutDate(LocalDate.now().plusDays(9))
+            .numberOfGuests(2)
+            .price(new BigDecimal("160.00"))
+            .build());
+        cart = cartRepository.save(cart);
+
+        return paymentRepository.save(Payment.builder()
+            .transactionId(transactionId)
+            .user(user)
+            .cart(cart)
+            .amount(cart.getTotalPrice())
+            .status(PaymentStatus.PENDING)
+            .initiatedAt(LocalDateTime.now())
+            .discountId(discountId)
+            .build());
+    }
+
+    private static AbaPayWayCallbackRequest callback(String transactionId, int status) {
+        String reqTime = "20250101120000";
+        return AbaPayWayCallbackRequest.builder()
+            .tranId(transactionId)
+            .reqTime(reqTime)
+            .status(status)
+            .hash(PayWaySigner.of(PUBLIC_KEY).sign(transactionId, reqTime, String.valueOf(status)))
+            .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.system.hotel_room_booking.service;
+
+import com.system.hotel_room_booking.exception.InvalidRefreshTokenException;
+import com.system.hotel_room_booking.model.entity.RefreshToken;
+import com.system.hotel_room_booking.model.entity.User;
+import com.system.hotel_room_booking.repository.RefreshTokenRepository;
+import com.system.hotel_room_booking.security.JwtTokenProvider;
+import com.system.hotel_room_booking.security.TokenVersionService;
+import com.system.hotel_room_booking.util.TokenHashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final String TOKEN = "presented-token";
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "reuseGraceMs", 10_000L);
+        user = User.builder().id(7L).username("guest").email("guest@example.com").build();
+    }
+
+    @Test
+    void rotateRetiresThePresentedTokenAndIssuesOneOfTheSameFamily() {
+        RefreshToken current = stored(LocalDateTime.now().plusDays(1), null);
+        when(tokenProvider.getJwtRefreshExpirationMs()).thenReturn(86_400_000L);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(TOKEN, null);
+
+        assertThat(current.getRotatedAt()).isNotNull();
+        assertThat(current.getRevokedAt()).isNotNull();
+        assertThat(rotation.user()).isSameAs(user);
+        assertThat(rotation.token()).isNotEqualTo(TOKEN);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getFamilyId()).isEqualTo("family-1");
+        assertThat(saved.getValue().getTokenHash()).isEqualTo(TokenHashUtil.sha256(rotation.token()));
+        assertThat(saved.getValue().getUser()).isSameAs(user);
+    }
+
+    @Test
+    void reuseInsideTheGracePeriodIsRejectedWithoutRevokingTheFamily() {
+        stored(LocalDateTime.now().plusDays(1), LocalDateTime.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(TOKEN, null))
+            .isInstanceOf(InvalidRefreshTokenException.class)
+            .hasMessageContaining("already been used");
+
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+        verify(tokenVersionService, never()).revokeAll(any());
+    }
+
+    @Test
+    void reuseAfterTheGracePeriodRevokesTheFamilyAndAccessTokens() {
+        stored(LocalDateTime.now().plusDays(1), LocalDateTime.now().minusMinutes(5));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(TOKEN, null))
+            .isInstanceOf(InvalidRefreshTokenException.class)
+            .hasMessageContaining("revoked");
+
+        verify(refreshTokenRepository).revokeFamily(anyString(), any());
+        verify(tokenVersionService).revokeAll(7L);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void anExpiredTokenIsRejected() {
+        stored(LocalDateTime.now().minusMinutes(1), null);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(TOKEN, null))
+            .isInstanceOf(InvalidRefreshTokenException.class)
+            .hasMessageContaining("expired");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void anUnknownTokenIsRejected() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(TokenHashUtil.sha256(TOKEN))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(TOKEN, null))
+            .isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void issueStartsANewFamilyAndStoresOnlyTheHash() {
+        when(tokenProvider.getJwtRefreshExpirationMs()).thenReturn(86_400_000L);
+
+        String first = refreshTokenService.issue(user, null);
+        String second = refreshTokenService.issue(user, null);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        RefreshToken firstStored = saved.getAllValues().get(0);
+        RefreshToken secondStored = saved.getAllValues().get(1);
+        assertThat(firstStored.getTokenHash()).isEqualTo(TokenHashUtil.sha256(first)).isNotEqualTo(first);
+        assertThat(secondStored.getTokenHash()).isEqualTo(TokenHashUtil.sha256(second));
+        assertThat(firstStored.getFamilyId()).isNotEqualTo(secondStored.getFamilyId());
+    }
+
+    private RefreshToken stored(LocalDateTime expiresAt, LocalDateTime rotatedAt) {
+        RefreshToken token = RefreshToken.builder()
+            .id(1L)
+            .user(user)
+            .tokenHash(TokenHashUtil.sha256(TOKEN))
+            .familyId("family-1")
+            .createdAt(LocalDateTime.now().minusHours(1))
+            .expiresAt(expiresAt)
+            .revokedAt(rotatedAt)
+            .rotatedAt(rotatedAt)
+            .build();
+        when(refreshTokenRepository.findByTokenHashForUpdate(TokenHashUtil.sha256(TOKEN))).thenReturn(Optional.of(token));
+        return token;
+    }
+}
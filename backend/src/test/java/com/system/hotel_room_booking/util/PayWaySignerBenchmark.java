@@ -0,0 +1,75 @@
+package com.system.hotel_room_booking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the PayWay purchase hash and of verifying a callback hash through the pooled signer,
+ * against a purchase hash with a Mac created and keyed on every call, as the code did before
+ * Run with: mvn test -Dtest=PayWaySignerBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayWaySignerBenchmark {
+
+    private static final String KEY = "benchmark-api-key";
+    private static final String REQ_TIME = "20261018120000";
+    private static final String TRAN_ID = "TXN-1760788800000-1a2b3c4d";
+
+    private String callbackHash;
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(PayWaySignerBenchmark.class.getName() + "\\.").build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        callbackHash = PayWaySigner.of(KEY).sign(TRAN_ID, REQ_TIME, "0");
+    }
+
+    @Benchmark
+    public String purchaseHash() {
+        return PayWayHashUtil.generatePurchaseHash(REQ_TIME, "merchant", TRAN_ID, "125.00", "Sok", "Dara",
+            "dara@example.com", "", "", "", "https://example.com/return", "https://example.com/cancel",
+            "https://example.com/success", "", "", "1", KEY);
+    }
+
+    @Benchmark
+    public String purchaseHashPerCallMac() throws Exception {
+        String data = REQ_TIME + "merchant" + TRAN_ID + "125.00" + "Sok" + "Dara" + "dara@example.com"
+            + "https://example.com/return" + "https://example.com/cancel" + "https://example.com/success" + "1";
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public boolean callbackVerification() {
+        return PayWayHashUtil.verifyCallbackHash(TRAN_ID, REQ_TIME, "0", callbackHash, KEY);
+    }
+}
@@ -0,0 +1,76 @@
+package com.system.hotel_room_booking.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayWaySignerTest {
+
+    private static final String KEY = "test-api-key";
+
+    static String reference(String key, String... fields) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        StringBuilder data = new StringBuilder();
+        for (String field : fields) {
+            if (field != null) {
+                data.append(field);
+            }
+        }
+        return Base64.getEncoder().encodeToString(mac.doFinal(data.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void signMatchesAPlainHmacOfTheConcatenatedFields() throws Exception {
+        String[] fields = {"20261018120000", "tran-1", "25.00", null, "Phnom Penh អង្គរ", "🏨"};
+
+        assertThat(PayWaySigner.of(KEY).sign(fields)).isEqualTo(reference(KEY, fields));
+    }
+
+    @Test
+    void signHandlesFieldsLongerThanTheScratchBuffer() throws Exception {
+        String field = "€".repeat(1000);
+
+        assertThat(PayWaySigner.of(KEY).sign(field)).isEqualTo(reference(KEY, field));
+    }
+
+    @Test
+    void verifyAcceptsOnlyTheMatchingHash() throws Exception {
+        PayWaySigner signer = PayWaySigner.of(KEY);
+        String hash = reference(KEY, "tran-1", "25.00");
+
+        assertThat(signer.verify(hash, "tran-1", "25.00")).isTrue();
+        assertThat(signer.verify(hash, "tran-1", "26.00")).isFalse();
+        assertThat(signer.verify(hash.substring(1), "tran-1", "25.00")).isFalse();
+        assertThat(signer.verify(null, "tran-1", "25.00")).isFalse();
+    }
+
+    @Test
+    void concurrentSigningsDoNotShareState() throws Exception {
+        PayWaySigner signer = PayWaySigner.of(KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String tranId = "tran-" + i;
+                String expected = reference(KEY, tranId, "25.00");
+                results.add(executor.submit(() -> signer.sign(tranId, "25.00").equals(expected)));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}